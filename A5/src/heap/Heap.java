@@ -11,12 +11,16 @@ package heap;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.NoSuchElementException;
+import java.util.function.ToDoubleFunction;
+
+import a6.IndexedPriorityQueue;
+import graph.PositionIndex;
 
 /** An instance is a max-heap or a min-heap of distinct values of type T <br>
  * with priorities of type double. */
-public final class Heap<T> {
+public final class Heap<T> implements IndexedPriorityQueue<T> {
 
     /** Replace "-1" by the time you spent on A2 in hours.<br>
      * Example: for 3 hours 15 minutes, use 3.25<br>
@@ -46,14 +50,39 @@ public final class Heap<T> {
     protected final boolean isMinHeap;
     protected Pair[] b;
     protected int size;
-    protected HashMap<T, Integer> map;
+    protected PositionIndex<T> map;
 
     /** Constructor: an empty heap with capacity 10. <br>
      * It is a min-heap if isMin is true and a max-heap if isMin is false. */
     public Heap(boolean isMin) {
+        this(isMin, 10);
+    }
+
+    /** Constructor: an empty heap with capacity max(capacity, 1), so that it can hold <br>
+     * that many values without its array having to grow. <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. */
+    public Heap(boolean isMin, int capacity) {
+        this(isMin, capacity, false);
+    }
+
+    /** Constructor: an empty heap with capacity max(capacity, 1). <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. <br>
+     * If identity is true, values are compared with == instead of equals, which is <br>
+     * faster and is right when values are canonical objects, like the nodes of a graph. */
+    public Heap(boolean isMin, int capacity, boolean identity) {
         isMinHeap= isMin;
-        b= createPairArray(10);
-        map= new HashMap<>();
+        capacity= Math.max(capacity, 1);
+        b= createPairArray(capacity);
+        map= new PositionIndex<>(capacity, identity);
+    }
+
+    /** Constructor: a heap containing the values in vs, with priority pri(v) for <br>
+     * each value v, built in time linear in vs.size() (see insertAll). <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. <br>
+     * Throw an IllegalArgumentException if vs contains a value twice. */
+    public Heap(boolean isMin, Collection<? extends T> vs, ToDoubleFunction<? super T> pri) {
+        this(isMin, vs.size());
+        insertAll(vs, pri);
     }
 
     /** If size = length of b, double the length of array b. <br>
@@ -108,6 +137,45 @@ public final class Heap<T> {
 
     }
 
+    /** Insert all values v in vs with priority pri(v) to the heap. <br>
+     * Throw an IllegalArgumentException, leaving the heap unchanged, if a value of vs <br>
+     * is already in the heap or occurs twice in vs. <br>
+     * The values are stored in b and map in one pass. If there are at least as many of <br>
+     * them as values already in the heap, the heap is then rebuilt bottom-up (Floyd's <br>
+     * algorithm), which takes time linear in the new size; otherwise each new value <br>
+     * is bubbled up. */
+    public void insertAll(Collection<? extends T> vs, ToDoubleFunction<? super T> pri) {
+        int oldSize= size;
+        if (size + vs.size() > b.length) {
+            b= Arrays.copyOf(b, Math.max(size + vs.size(), 2 * b.length));
+        }
+        for (T v : vs) {
+            if (map.containsKey(v)) {
+                // undo the values stored so far
+                for (int h= oldSize; h < size; h= h + 1) {
+                    map.remove(b[h].value);
+                    b[h]= null;
+                }
+                size= oldSize;
+                throw new IllegalArgumentException();
+            }
+            b[size]= new Pair(v, pri.applyAsDouble(v));
+            map.put(v, size);
+            size++ ;
+        }
+
+        if (size - oldSize >= oldSize) {
+            // Floyd's heapify: the leaves b[size/2..size-1] are heaps already.
+            for (int h= size / 2 - 1; h >= 0; h= h - 1) {
+                bubbleDown(h);
+            }
+        } else {
+            for (int h= oldSize; h < size; h= h + 1) {
+                bubbleUp(h);
+            }
+        }
+    }
+
     /** Return the size of this heap. <br>
      * This operation takes constant time. */
     public int size() { // Do not change this method
@@ -127,11 +195,11 @@ public final class Heap<T> {
         // will find no errors.
         //
         // Read the Assignment A5 note about map.put(...).
-        Pair swapping= new Pair(b[h].value, b[h].priority);
-        map.put(b[h].value, k);
-        map.put(b[k].value, h);
+        Pair swapping= b[h];
         b[h]= b[k];
         b[k]= swapping;
+        map.put(b[h].value, h);
+        map.put(b[k].value, k);
 
     }
 
@@ -270,8 +338,8 @@ public final class Heap<T> {
     public void changePriority(T v, double p) {
         // TODO 8: When this method is correct, all testing procedures
         // will find no errors.
-        if (!map.containsKey(v)) { throw new IllegalArgumentException(); }
         int index= map.get(v);
+        if (index < 0) { throw new IllegalArgumentException(); }
         b[index].priority= p;
         bubbleUp(index);
         bubbleDown(index);
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.NoSuchElementException;
 import java.util.Random;
@@ -804,6 +805,81 @@ class HeapTest {
         assertEquals("Polled values are in order", true, finalInOrder);
     }
 
+    @Test
+    @Order(90)
+    /** Test the capacity constructor. */
+    public void test90CapacityConstructor() {
+        Heap<Integer> mh= new Heap<>(true, 100);
+        assertEquals(100, mh.b.length);
+        for (int k= 0; k < 100; k= k + 1) { mh.insert(k, k); }
+        assertEquals(100, mh.b.length);
+        assertEquals(1, new Heap<Integer>(false, 0).b.length);
+    }
+
+    @Test
+    @Order(92)
+    /** Test the bulk constructor, which heapifies bottom-up. */
+    public void test92BulkConstructor() {
+        Heap<Integer> mh= new Heap<>(true, Arrays.asList(5, 4, 3, 2, 1), (v) -> v);
+        check(new Integer[] { 1, 2, 3, 5, 4 }, new double[] { 1, 2, 3, 5, 4 }, mh);
+
+        Heap<Integer> mh1= new Heap<>(false, Arrays.asList(1, 2, 3, 4, 5), (v) -> v);
+        check(new Integer[] { 5, 4, 3, 1, 2 }, new double[] { 5, 4, 3, 1, 2 }, mh1);
+
+        Heap<Integer> mh2= new Heap<>(true, new ArrayList<Integer>(), (v) -> v);
+        check(new Integer[] {}, new double[] {}, mh2);
+    }
+
+    @Test
+    @Order(94)
+    /** Test insertAll into a heap that is not empty. */
+    public void test94InsertAll() {
+        // Few new values: each one is bubbled up, as insert would do.
+        Heap<Integer> mh= minHeapify(new Integer[] { 1, 3, 5, 7, 9, 11, 13 });
+        mh.insertAll(Arrays.asList(0, 6), (v) -> v);
+        check(minHeapify(new Integer[] { 1, 3, 5, 7, 9, 11, 13, 0, 6 }), mh);
+
+        // Many new values: the whole heap is rebuilt.
+        Heap<Integer> mh1= minHeapify(new Integer[] { 8, 9 });
+        mh1.insertAll(Arrays.asList(7, 6, 5, 4), (v) -> v);
+        check(new Integer[] { 4, 5, 7, 6, 9, 8 }, new double[] { 4, 5, 7, 6, 9, 8 }, mh1);
+        int[] b= new int[6];
+        pollHeap(mh1, b);
+        assertEquals("[4, 5, 6, 7, 8, 9]", Arrays.toString(b));
+
+        // A duplicate value leaves the heap unchanged.
+        Heap<Integer> mh2= minHeapify(new Integer[] { 1, 2, 3 });
+        assertThrows(IllegalArgumentException.class, () -> {
+            mh2.insertAll(Arrays.asList(4, 5, 2), (v) -> v);
+        });
+        check(new Integer[] { 1, 2, 3 }, new double[] { 1, 2, 3 }, mh2);
+        assertThrows(IllegalArgumentException.class, () -> {
+            mh2.insertAll(Arrays.asList(4, 5, 4), (v) -> v);
+        });
+        check(new Integer[] { 1, 2, 3 }, new double[] { 1, 2, 3 }, mh2);
+    }
+
+    @Test
+    @Order(96)
+    /** Test that a heap built in bulk polls its values in order. */
+    public void test96BulkBigTest() {
+        Random rand= new Random(52);
+        ArrayList<Integer> vs= new ArrayList<>();
+        HashMap<Integer, Double> pri= new HashMap<>();
+        for (int k= 0; k < 1000; k= k + 1) {
+            vs.add(k);
+            pri.put(k, (double) rand.nextInt(300));
+        }
+        Heap<Integer> mh= new Heap<>(true, vs, pri::get);
+        assertEquals(1000, mh.size);
+        double previous= -1;
+        while (mh.size() > 0) {
+            double p= pri.get(mh.poll());
+            assertEquals(true, previous <= p);
+            previous= p;
+        }
+    }
+
     /** Poll all elements of m into b. <br>
      * Precondition m and b are the same size. */
     public void pollHeap(Heap<Integer> m, int[] b) {
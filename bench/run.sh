@@ -0,0 +1,10 @@
+#!/bin/sh
+# Build the JMH benchmarks of bench/src with bench/pom.xml and run them.
+#
+# Usage, from any directory:
+#   bench/run.sh [JMH options]
+# e.g. bench/run.sh HeapBenchmark -f 1 -wi 3 -i 5
+set -e
+cd "$(dirname "$0")"
+mvn -B -q package
+java -jar target/benchmarks.jar "$@"
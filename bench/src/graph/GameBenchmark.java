@@ -0,0 +1,51 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import diver.McDiver;
+
+/** JMH benchmarks of whole headless games played by McDiver, without time limits.<br>
+ * Each invocation plays the game for the next of a fixed cycle of seeds. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+@Fork(1)
+public class GameBenchmark {
+
+	/** The seeds of the games, used in turn */
+	private long[] seeds;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		GameState.shouldPrint= false;
+		seeds= new long[64];
+		long seed= 42;
+		for (int k= 0; k < seeds.length; k++ ) {
+			seeds[k]= seed;
+			seed= new Random(seed).nextLong();
+		}
+	}
+
+	/** Play a whole game: generate both sewers, then find and flee. */
+	@Benchmark
+	public int runNewGame() {
+		long seed= seeds[next];
+		next= (next + 1) % seeds.length;
+		return GameState.runNewGame(seed, false, new McDiver(true, seed));
+	}
+}
@@ -0,0 +1,139 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH benchmarks of the heaps: heap.Heap (A5), a6.Heap, and graph.InternalMinHeap.
+ *
+ * Each benchmark inserts size values with random priorities and then either polls them<br>
+ * all or changes the priority of every value (a decrease-key, as in Dijkstra's algorithm)<br>
+ * before polling them all. It is in package graph because InternalMinHeap is<br>
+ * package-private. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations= 3, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class HeapBenchmark {
+
+	/** Number of values in the heap */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/** values[k] has priority priorities[k] and then, after changePriority, lower[k] */
+	private Integer[] values;
+	private double[] priorities, lower;
+
+	@Setup
+	public void setUp() {
+		Random rand= new Random(42);
+		values= new Integer[size];
+		priorities= new double[size];
+		lower= new double[size];
+		for (int k= 0; k < size; k++ ) {
+			values[k]= k;
+			priorities[k]= rand.nextDouble();
+			lower[k]= priorities[k] * rand.nextDouble();
+		}
+	}
+
+	@Benchmark
+	public int a5InsertPoll() {
+		heap.Heap<Integer> h= new heap.Heap<>(true);
+		for (int k= 0; k < size; k++ ) {
+			h.insert(values[k], priorities[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int a5ChangePriority() {
+		heap.Heap<Integer> h= new heap.Heap<>(true);
+		for (int k= 0; k < size; k++ ) {
+			h.insert(values[k], priorities[k]);
+		}
+		for (int k= 0; k < size; k++ ) {
+			h.changePriority(values[k], lower[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int a6InsertPoll() {
+		a6.Heap<Integer> h= new a6.Heap<>(true);
+		for (int k= 0; k < size; k++ ) {
+			h.insert(values[k], priorities[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int a6ChangePriority() {
+		a6.Heap<Integer> h= new a6.Heap<>(true);
+		for (int k= 0; k < size; k++ ) {
+			h.insert(values[k], priorities[k]);
+		}
+		for (int k= 0; k < size; k++ ) {
+			h.changePriority(values[k], lower[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int internalInsertPoll() {
+		InternalMinHeap<Integer> h= new InternalMinHeap<>();
+		for (int k= 0; k < size; k++ ) {
+			h.add(values[k], priorities[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int internalChangePriority() {
+		InternalMinHeap<Integer> h= new InternalMinHeap<>();
+		for (int k= 0; k < size; k++ ) {
+			h.add(values[k], priorities[k]);
+		}
+		for (int k= 0; k < size; k++ ) {
+			h.changePriority(values[k], lower[k]);
+		}
+		int sum= 0;
+		while (h.size() > 0) {
+			sum+= h.poll();
+		}
+		return sum;
+	}
+}
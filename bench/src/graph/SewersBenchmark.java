@@ -0,0 +1,93 @@
+package graph;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** JMH benchmarks of generating sewer systems and of converting them to and from <br>
+ * the text and binary formats. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations= 3, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class SewersBenchmark {
+
+	/** Size of the sewer system: GameState's MIN or MAX rows and columns */
+	@Param({ "MIN", "MAX" })
+	public String size;
+
+	/** Number of rows and columns */
+	private int rows, cols;
+
+	/** Seed for the next generated sewer system (each invocation uses a new one) */
+	private long seed;
+
+	/** A sewer system and its text and binary forms */
+	private Sewers sewers;
+	private List<String> text;
+	private String joined;
+	private byte[] binary;
+
+	@Setup
+	public void setUp() {
+		boolean min= size.equals("MIN");
+		rows= min ? GameState.MIN_ROWS : GameState.MAX_ROWS;
+		cols= min ? GameState.MIN_COLS : GameState.MAX_COLS;
+		sewers= Sewers.digGetOutSewer(rows, cols, 1, 1, new Random(42));
+		text= sewers.serialize();
+		joined= String.join("\n", text);
+		binary= SewerBinary.toBytes(sewers);
+	}
+
+	@Benchmark
+	public Sewers digExploreSewer() {
+		return Sewers.digExploreSewer(rows, cols, new Random(seed++ ));
+	}
+
+	@Benchmark
+	public Sewers digGetOutSewer() {
+		return Sewers.digGetOutSewer(rows, cols, 1, 1, new Random(seed++ ));
+	}
+
+	@Benchmark
+	public List<String> serialize() {
+		return sewers.serialize();
+	}
+
+	@Benchmark
+	public Sewers deserializeList() {
+		return Sewers.deserialize(text);
+	}
+
+	@Benchmark
+	public Sewers deserializeReader() throws IOException {
+		return Sewers.deserialize(new StringReader(joined));
+	}
+
+	@Benchmark
+	public byte[] writeBinary() {
+		return SewerBinary.toBytes(sewers);
+	}
+
+	@Benchmark
+	public Sewers readBinary() {
+		return SewerBinary.read(ByteBuffer.wrap(binary));
+	}
+}
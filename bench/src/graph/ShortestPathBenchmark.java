@@ -0,0 +1,80 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import a6.A6;
+
+/** JMH benchmarks of shortest paths on generated sewer systems with random edge weights:<br>
+ * a6.A6.shortest (with a heap, with Dial's bucket queue, bidirectional, and A*) and the<br>
+ * Dijkstra's algorithm of SewerCsr, from the entrance to the ring and from the entrance<br>
+ * to every tile. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations= 3, time= 1)
+@Measurement(iterations= 5, time= 1)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+	/** Size of the sewer system: GameState's MIN or MAX rows and columns */
+	@Param({ "MIN", "MAX" })
+	public String size;
+
+	/** The sewer system and the two ends of the paths */
+	private Sewers sewers;
+	private Node start, end;
+
+	@Setup
+	public void setUp() {
+		boolean min= size.equals("MIN");
+		int rows= min ? GameState.MIN_ROWS : GameState.MAX_ROWS;
+		int cols= min ? GameState.MIN_COLS : GameState.MAX_COLS;
+		sewers= Sewers.digGetOutSewer(rows, cols, 1, 1, new Random(42));
+		start= sewers.nodeAt(1, 1);
+		end= sewers.ring();
+	}
+
+	@Benchmark
+	public int a6Shortest() {
+		return A6.shortest(start, end).size();
+	}
+
+	@Benchmark
+	public int a6ShortestDial() {
+		return A6.shortest(start, end, Sewers.MAX_EDGE_WEIGHT).size();
+	}
+
+	@Benchmark
+	public int a6ShortestBidirectional() {
+		return A6.shortestBidirectional(start, end).size();
+	}
+
+	@Benchmark
+	public int a6ShortestAStar() {
+		return A6.shortestAStar(start, end, null).size();
+	}
+
+	@Benchmark
+	public int csrDistance() {
+		SewerCsr csr= sewers.csr();
+		return csr.distance(csr.index(start), csr.index(end));
+	}
+
+	@Benchmark
+	public int[] csrAllDistances() {
+		return sewers.distancesFrom(start);
+	}
+}
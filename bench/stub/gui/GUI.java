@@ -0,0 +1,40 @@
+package gui;
+
+import graph.GameState;
+import graph.Node;
+import graph.Sewers;
+
+/** A GUI that shows nothing, so that the headless benchmarks compile without the <br>
+ * Swing classes of the full GUI. GameState refers to GUI, but a game created without <br>
+ * a GUI never creates one. */
+public class GUI {
+
+	/** Frame rate at which the game events are delivered */
+	public static final int FRAMES_PER_SECOND= 60;
+
+	/** Constructor: a GUI for sewer s, with McDiver at (r, c), for the game of seed <br>
+	 * seed. It shows nothing. */
+	public GUI(Sewers s, int r, int c, long seed, GameState g) {}
+
+	public void setLighting(boolean light) {}
+
+	public void updateSewer(Sewers s, int stepsToGo) {}
+
+	public void moveTo(Node n) {}
+
+	public OptionsPanel getOptionsPanel() {
+		return new OptionsPanel();
+	}
+
+	public MazePanel getMazePanel() {
+		return null;
+	}
+
+	public void updateBonus(double bonus) {}
+
+	public void updateStepsToGo(int stepsToGo) {}
+
+	public void updateCoins(int coins, int score) {}
+
+	public void displayError(String message) {}
+}
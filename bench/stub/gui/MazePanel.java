@@ -0,0 +1,7 @@
+package gui;
+
+import javax.swing.JPanel;
+
+/** The maze panel of the no-op GUI of the benchmarks; GUI never returns one. */
+@SuppressWarnings("serial")
+public class MazePanel extends JPanel {}
@@ -0,0 +1,7 @@
+package gui;
+
+/** The options panel of the no-op GUI of the benchmarks. It shows nothing. */
+public class OptionsPanel {
+
+	public void changePhaseLabel(String label) {}
+}
@@ -9,12 +9,18 @@ package a6;
  *
  */
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.ToIntFunction;
 
+import graph.BucketQueue;
 import graph.Edge;
+import graph.IndexedIntHeap;
+import graph.IndexedIntQueue;
 import graph.Node;
+import graph.NodePath;
 
 /** This class contains the solution to A6, shortest-path algorithm, <br>
  * and other methods for an undirected graph. */
@@ -30,43 +36,292 @@ public class A6 {
      * ---or the empty list if a path does not exist. <br>
      * Note: The empty list is a list with 0 elements ---it is not "null". */
     public static List<Node> shortest(Node v, Node end) {
+        HashMap<Node, Info> mapSF= search(v, end);
+        // no path from v to end. Don't change this
+        if (mapSF == null) return new LinkedList<>();
+        return path(mapSF, end);
+    }
+
+    /** = the shortest path from node v to node end as a NodePath, which also gives <br>
+     * the distance from v to each node on it (computed during the search) <br>
+     * ---or NodePath.EMPTY if a path does not exist. */
+    public static NodePath shortestPath(Node v, Node end) {
+        HashMap<Node, Info> mapSF= search(v, end);
+        if (mapSF == null) return NodePath.EMPTY;
+        return nodePath(mapSF, end);
+    }
+
+    /** Run Dijkstra's algorithm from v until end is settled and return the map with <br>
+     * the Info of every node in the settled and frontier sets ---or null if there is <br>
+     * no path from v to end. */
+    private static HashMap<Node, Info> search(Node v, Node end) {
         /* TODO Implement this method.
          * Read the A6 assignment handout for all details.
          * Remember, the graph is undirected. */
 
-        // Contains an entry for each node in the frontier set. The priority of
-        // a node is the length of the shortest known path from v to the node
-        // using only settled nodes except for the last node, which is in F.
-        Heap<Node> F= new Heap<>(true);
+        // Nodes are numbered 0, 1, 2, ... in the order in which they are found, and
+        // nodes.get(k) is the node with number k. F contains the numbers of the nodes in
+        // the frontier set. The priority of a node is the length of the shortest known
+        // path from v to the node using only settled nodes except for the last node.
+        IndexedIntHeap F= new IndexedIntHeap(16, true);
+        List<Node> nodes= new ArrayList<>();
 
         HashMap<Node, Info> mapSF= new HashMap<>(); // Create a hashmap for all nodes in settled and
-                                                    // frontier set to record the back pointers as
-                                                    // well as the distance
+                                                    // frontier set to record the back pointers,
+                                                    // the distance, and the number of the node
 
-        F.insert(v, 0); // put the starting point into the Frontier Set with a distance value of 0
-        mapSF.put(v, new Info(null, 0)); // update the hashmap with starting node and
-        // info(distance
-        // 0 and no prev node)
+        F.insert(0, 0); // put the starting point into the Frontier Set with a distance value of 0
+        nodes.add(v);
+        mapSF.put(v, new Info(null, 0, 0)); // update the hashmap with starting node and
+        // info(distance 0, no prev node, and number 0)
         while (F.size() != 0) { // while the frontier is not empty
-            Node f= F.poll(); // take the node with minimmum d value and remove from frontier
+            Node f= nodes.get(F.poll()); // take the node with minimum d value out of the frontier
+            if (f.equals(end)) { return mapSF; }
+            relax(f, F, nodes, mapSF, NO_ESTIMATE);
+        }
+        return null;
+    }
+
+    /** = the shortest path from node v to node end <br>
+     * ---or the empty list if a path does not exist. <br>
+     * Precondition: every edge has length in 0..maxWeight, e.g. Sewers.MAX_EDGE_WEIGHT <br>
+     * for a sewer system. If maxWeight is at most BucketQueue.MAX_SMALL_WEIGHT, this <br>
+     * uses Dial's algorithm, whose frontier set is a BucketQueue; otherwise, it is the <br>
+     * same as shortest(v, end). Throw an IllegalArgumentException if an edge longer <br>
+     * than maxWeight (or of negative length) would lower the distance of a node, <br>
+     * since the BucketQueue has no bucket for it. */
+    public static List<Node> shortest(Node v, Node end, int maxWeight) {
+        if (maxWeight > BucketQueue.MAX_SMALL_WEIGHT) return shortest(v, end);
+
+        // As in shortest(v, end), the frontier set F contains node numbers.
+        BucketQueue F= new BucketQueue(16, Math.max(maxWeight, 0));
+        List<Node> nodes= new ArrayList<>();
+        HashMap<Node, Info> mapSF= new HashMap<>();
+        F.insert(0, 0);
+        nodes.add(v);
+        mapSF.put(v, new Info(null, 0, 0));
+        while (F.size() != 0) {
+            Node f= nodes.get(F.poll());
             if (f.equals(end)) { return path(mapSF, end); }
+            relax(f, F, nodes, mapSF, NO_ESTIMATE);
+        }
+        return new LinkedList<>();
+    }
+
+    /** = the shortest path from node v to node end <br>
+     * ---or the empty list if a path does not exist--- computed using F as the <br>
+     * frontier set, so the caller chooses the kind of priority queue, e.g. <br>
+     * new Heap<>(true), new DaryHeap<>(4, true) or new PairingHeap<>(true). <br>
+     * Precondition: F is an empty min-queue. */
+    public static List<Node> shortest(Node v, Node end, IndexedPriorityQueue<Node> F) {
+        if (F.size() != 0) throw new IllegalArgumentException("F is not empty");
+        HashMap<Node, Info> mapSF= new HashMap<>();
+        F.insert(v, 0);
+        mapSF.put(v, new Info(null, 0, 0));
+        while (F.size() != 0) {
+            Node f= F.poll();
+            if (f.equals(end)) { return path(mapSF, end); }
+            int fDist= mapSF.get(f).dist;
             for (Edge e : f.getExits()) {
                 Node w= e.getOther(f);
-                int Wlength= mapSF.get(f).dist + e.length;
-                Info WInfo= new Info(f, Wlength);
-                if (!mapSF.containsKey(w)) {
-                    mapSF.put(w, WInfo);
+                int Wlength= fDist + e.length;
+                Info WInfo= mapSF.get(w);
+                if (WInfo == null) {
+                    mapSF.put(w, new Info(f, Wlength, mapSF.size()));
                     F.insert(w, Wlength);
-                } else if (Wlength < mapSF.get(w).dist) {
+                } else if (Wlength < WInfo.dist) {
+                    WInfo.dist= Wlength;
+                    WInfo.bkptr= f;
                     F.changePriority(w, Wlength);
-                    mapSF.put(w, WInfo);
                 }
             }
+        }
+        return new LinkedList<>();
+    }
 
+    /** = the shortest path from node v to node end <br>
+     * ---or the empty list if a path does not exist--- like shortest(v, end), <br>
+     * but found by a bidirectional search: Dijkstra's algorithm runs forward from v <br>
+     * and backward from end (the graph is undirected), each step advancing the <br>
+     * direction with the smaller frontier. best is the length of the shortest path <br>
+     * found so far that goes through a node found in both directions. The search <br>
+     * stops when the smallest distances in the two frontiers add up to at least best: <br>
+     * every path not yet found is at least that long. For a distant end, the two <br>
+     * searches together settle far fewer nodes than a search from v alone. */
+    public static List<Node> shortestBidirectional(Node v, Node end) {
+        Search fwd= new Search(v);
+        Search bwd= new Search(end);
+        // The best path found: fwd's path to meetF, then the edge to meetB (if they
+        // are different), then bwd's path from meetB back to end.
+        int best= v.equals(end) ? 0 : Integer.MAX_VALUE;
+        Node meetF= v, meetB= end;
+
+        while (fwd.F.size() != 0 && bwd.F.size() != 0 &&
+            (long) fwd.minDist() + bwd.minDist() < best) {
+            boolean forward= fwd.F.size() <= bwd.F.size();
+            Search s= forward ? fwd : bwd;
+            Search other= forward ? bwd : fwd;
+            Node f= s.settle();
+            int fDist= s.dist(f);
+            for (Edge e : f.getExits()) {
+                Node w= e.getOther(f);
+                int wOther= other.dist(w);
+                if (wOther >= 0 && fDist + e.length + wOther < best) {
+                    best= fDist + e.length + wOther;
+                    meetF= forward ? f : w;
+                    meetB= forward ? w : f;
+                }
+            }
         }
 
-        // no path from v to end. Don't change this
-        return new LinkedList<>();
+        if (best == Integer.MAX_VALUE) return new LinkedList<>();
+        List<Node> path= path(fwd.mapSF, meetF);
+        Node p= meetB.equals(meetF) ? bwd.mapSF.get(meetB).bkptr : meetB;
+        for (; p != null; p= bwd.mapSF.get(p).bkptr) {
+            path.add(p);
+        }
+        return path;
+    }
+
+    /** An instance collects statistics about a search, e.g. for comparing A* with <br>
+     * different heuristics against Dijkstra's algorithm. */
+    public static final class Stats {
+        /** Number of nodes expanded (moved to the settled set) */
+        private int expanded;
+
+        /** = the number of nodes expanded by the searches given this object. */
+        public int expanded() {
+            return expanded;
+        }
+
+        /** = a representation of this instance. */
+        @Override
+        public String toString() {
+            return "expanded " + expanded;
+        }
+    }
+
+    /** = the heuristic for A* that estimates the distance from a node to end as the <br>
+     * Manhattan distance between their tiles, like GameState.distanceToRing(). <br>
+     * In a graph of tiles, such as a Sewers, where every edge joins two neighboring <br>
+     * tiles and has length at least 1, it never overestimates and is consistent. */
+    public static ToIntFunction<Node> manhattanTo(Node end) {
+        int row= end.getTile().row();
+        int col= end.getTile().column();
+        return (n) -> Math.abs(n.getTile().row() - row) + Math.abs(n.getTile().column() - col);
+    }
+
+    /** = the shortest path from node v to node end <br>
+     * ---or the empty list if a path does not exist--- found by A* with the <br>
+     * Manhattan-distance heuristic manhattanTo(end). <br>
+     * If stats is not null, add the number of expanded nodes to it. <br>
+     * Precondition: the nodes have tiles, every edge joins two neighboring tiles, <br>
+     * and every edge has length at least 1. */
+    public static List<Node> shortestAStar(Node v, Node end, Stats stats) {
+        return shortestAStar(v, end, manhattanTo(end), stats);
+    }
+
+    /** = the shortest path from node v to node end <br>
+     * ---or the empty list if a path does not exist--- found by A*: like <br>
+     * shortest(v, end), but the priority of a node w in the frontier set is its <br>
+     * shortest known distance plus h(w), an estimate of the distance from w to end. <br>
+     * So nodes that look closer to end are expanded first. With h(w) = 0 for all w, <br>
+     * this is Dijkstra's algorithm, which gives the baseline for stats. <br>
+     * If stats is not null, add the number of expanded nodes to it. <br>
+     * Precondition: h is consistent: h(end) = 0 and, for each edge (a, b), <br>
+     * h(a) <= (length of the edge) + h(b). Then the path found is a shortest one. */
+    public static List<Node> shortestAStar(Node v, Node end, ToIntFunction<Node> h,
+        Stats stats) {
+        // As in shortest(v, end), F contains node numbers; Info.dist is the
+        // shortest known distance, without the estimate.
+        IndexedIntHeap F= new IndexedIntHeap(16, true);
+        List<Node> nodes= new ArrayList<>();
+        HashMap<Node, Info> mapSF= new HashMap<>();
+        F.insert(0, h.applyAsInt(v));
+        nodes.add(v);
+        mapSF.put(v, new Info(null, 0, 0));
+        int expanded= 0;
+        try {
+            while (F.size() != 0) {
+                Node f= nodes.get(F.poll());
+                expanded++ ;
+                if (f.equals(end)) { return path(mapSF, end); }
+                relax(f, F, nodes, mapSF, h);
+            }
+            return new LinkedList<>();
+        } finally {
+            if (stats != null) stats.expanded+= expanded;
+        }
+    }
+
+    /** An instance is one direction of a bidirectional search: the state of <br>
+     * Dijkstra's algorithm from a start node, kept as in shortest(v, end). */
+    private static class Search {
+        /** The frontier set: numbers of nodes, with their shortest known distances <br>
+         * as priorities. nodes.get(k) is the node with number k. */
+        private final IndexedIntHeap F= new IndexedIntHeap(16, true);
+        private final List<Node> nodes= new ArrayList<>();
+        /** Information about every node in the settled and frontier sets */
+        private final HashMap<Node, Info> mapSF= new HashMap<>();
+
+        /** Constructor: a search whose frontier set contains only start. */
+        private Search(Node start) {
+            F.insert(0, 0);
+            nodes.add(start);
+            mapSF.put(start, new Info(null, 0, 0));
+        }
+
+        /** = the smallest distance in the frontier set. <br>
+         * Precondition: the frontier set is not empty. */
+        private int minDist() {
+            return (int) F.priority(F.peek());
+        }
+
+        /** = the shortest known distance to w, or -1 if w has not been found. */
+        private int dist(Node w) {
+            Info info= mapSF.get(w);
+            return info == null ? -1 : info.dist;
+        }
+
+        /** Move the node with the smallest distance from the frontier set to the <br>
+         * settled set, update the distances of its neighbors, and return it. <br>
+         * Precondition: the frontier set is not empty. */
+        private Node settle() {
+            Node f= nodes.get(F.poll());
+            relax(f, F, nodes, mapSF, NO_ESTIMATE);
+            return f;
+        }
+    }
+
+    /** The heuristic that estimates every distance as 0, with which A* is <br>
+     * Dijkstra's algorithm. */
+    private static final ToIntFunction<Node> NO_ESTIMATE= (n) -> 0;
+
+    /** Relax the edges of node f, which has just been moved to the settled set: <br>
+     * for each neighbor w of f, if w has not been found, give it the next number, <br>
+     * add it to nodes and mapSF with f as backpointer, and insert it into F; <br>
+     * if w is in the frontier set but the path through f is shorter, make f its <br>
+     * backpointer and lower its distance. The priority of w in F is its shortest <br>
+     * known distance plus h(w) (h is NO_ESTIMATE for Dijkstra's algorithm). <br>
+     * Every search whose frontier set is an IndexedIntQueue of node numbers uses this: <br>
+     * an IndexedIntHeap, or a BucketQueue for Dial's algorithm. */
+    private static void relax(Node f, IndexedIntQueue F, List<Node> nodes,
+        HashMap<Node, Info> mapSF, ToIntFunction<Node> h) {
+        int fDist= mapSF.get(f).dist;
+        for (Edge e : f.getExits()) {
+            Node w= e.getOther(f);
+            int Wlength= fDist + e.length;
+            Info WInfo= mapSF.get(w);
+            if (WInfo == null) {
+                mapSF.put(w, new Info(f, Wlength, nodes.size()));
+                F.insert(nodes.size(), Wlength + h.applyAsInt(w));
+                nodes.add(w);
+            } else if (Wlength < WInfo.dist) {
+                WInfo.dist= Wlength;
+                WInfo.bkptr= f;
+                F.changePriority(WInfo.num, Wlength + h.applyAsInt(w));
+            }
+        }
     }
 
     /** An instance contains information about a node: <br>
@@ -79,12 +334,16 @@ public class A6 {
         /** backpointer on path (with shortest known distance) from <br>
          * start node to this one */
         private Node bkptr;
+        /** number of this node in the order in which nodes were found <br>
+         * (its value in the frontier heap) */
+        private final int num;
 
-        /** Constructor: an instance with dist d from the start node and<br>
-         * backpointer p. */
-        private Info(Node p, int d) {
+        /** Constructor: an instance with dist d from the start node,<br>
+         * backpointer p, and number k. */
+        private Info(Node p, int d, int k) {
             dist= d;     // Distance from start node to this one.
             bkptr= p;    // Backpointer on the path (null if start node)
+            num= k;      // Number of this node, in the order nodes were found
         }
 
         /** = a representation of this instance. */
@@ -109,6 +368,29 @@ public class A6 {
         return path;
     }
 
+    /** = the path from the start node to node end, as a NodePath. The distances <br>
+     * along it are the dists in mapSF, so no edge has to be looked up. <br>
+     * Precondition: mapSF contains all the necessary information about<br>
+     * ............. the path, and the nodes on it are settled. */
+    public static NodePath nodePath(HashMap<Node, Info> mapSF, Node end) {
+        int n= 0;
+        for (Node p= end; p != null; p= mapSF.get(p).bkptr) {
+            n++ ;
+        }
+        Node[] nodes= new Node[n];
+        int[] dist= new int[n];
+        Node p= end;
+        // invariant: nodes[i+1..n-1] and dist[i+1..n-1] are filled in, and
+        // p is node i of the path.
+        for (int i= n - 1; i >= 0; i-- ) {
+            Info info= mapSF.get(p);
+            nodes[i]= p;
+            dist[i]= info.dist;
+            p= info.bkptr;
+        }
+        return new NodePath(nodes, dist);
+    }
+
     /** = the sum of the weights of the edges on path p. <br>
      * Precondition: p contains at least 1 node. <br>
      * If 1 node, it's a path of length 0, i.e. with no edges. */
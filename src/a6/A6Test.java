@@ -1,11 +1,15 @@
 package a6;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import org.json.JSONObject;
 import org.junit.FixMethodOrder;
@@ -14,6 +18,8 @@ import org.junit.runners.MethodSorters;
 
 import graph.Graph;
 import graph.Node;
+import graph.NodePath;
+import graph.Sewers;
 import gui.TextIO;
 
 /** @author davidgries */
@@ -126,6 +132,94 @@ public class A6Test {
         checkAllShortestPaths(g, pd);
     }
 
+    /** Test that A* with the Manhattan heuristic finds paths as short as those of <br>
+     * Dijkstra's algorithm, between random nodes of sewers generated from a few seeds, <br>
+     * and that it expands no more nodes than Dijkstra's algorithm (A* with h = 0). */
+    @Test
+    public void test90AStarManhattan() {
+        for (long seed= 0; seed < 5; seed= seed + 1) {
+            Random rand= new Random(seed);
+            Sewers sewers= Sewers.digExploreSewer(12, 15, rand);
+            List<Node> nodes= new ArrayList<>(sewers.graph());
+            nodes.sort(Comparator.comparingLong(Node::getId));
+            A6.Stats manhattan= new A6.Stats();
+            A6.Stats dijkstra= new A6.Stats();
+            for (int k= 0; k < 50; k= k + 1) {
+                Node v= nodes.get(rand.nextInt(nodes.size()));
+                Node end= nodes.get(rand.nextInt(nodes.size()));
+                List<Node> path= A6.shortestAStar(v, end, manhattan);
+                assertEquals(A6.pathSum(A6.shortest(v, end)), A6.pathSum(path));
+                assertEquals(v, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+                A6.shortestAStar(v, end, (n) -> 0, dijkstra);
+            }
+            assertTrue(manhattan.expanded() <= dijkstra.expanded());
+        }
+    }
+
+    /** Test that shortestPath gives the same path as shortest, with its length as <br>
+     * weight, between random nodes of sewers generated from a few seeds. */
+    @Test
+    public void test91ShortestPath() {
+        for (long seed= 0; seed < 5; seed= seed + 1) {
+            Random rand= new Random(seed);
+            List<Node> nodes= sortedNodes(Sewers.digExploreSewer(12, 15, rand));
+            for (int k= 0; k < 50; k= k + 1) {
+                Node v= nodes.get(rand.nextInt(nodes.size()));
+                Node end= nodes.get(rand.nextInt(nodes.size()));
+                List<Node> list= A6.shortest(v, end);
+                NodePath path= A6.shortestPath(v, end);
+                assertEquals(list, path.asList());
+                assertEquals(A6.pathSum(list), path.weight());
+            }
+        }
+    }
+
+    /** Test that shortestBidirectional finds paths as short as those of shortest, <br>
+     * from v to end, between random nodes of sewers generated from a few seeds. */
+    @Test
+    public void test92ShortestBidirectional() {
+        for (long seed= 0; seed < 5; seed= seed + 1) {
+            Random rand= new Random(seed);
+            List<Node> nodes= sortedNodes(Sewers.digExploreSewer(12, 15, rand));
+            for (int k= 0; k < 50; k= k + 1) {
+                Node v= nodes.get(rand.nextInt(nodes.size()));
+                Node end= nodes.get(rand.nextInt(nodes.size()));
+                List<Node> path= A6.shortestBidirectional(v, end);
+                assertEquals(A6.pathSum(A6.shortest(v, end)), A6.pathSum(path));
+                assertEquals(v, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+            }
+        }
+    }
+
+    /** Test that A* with h = 0 and Dial's algorithm find paths as short as those of <br>
+     * shortest, between random nodes of sewers generated from a few seeds. */
+    @Test
+    public void test93ShortestAStarAndDial() {
+        for (long seed= 0; seed < 5; seed= seed + 1) {
+            Random rand= new Random(seed);
+            List<Node> nodes= sortedNodes(Sewers.digExploreSewer(12, 15, rand));
+            for (int k= 0; k < 50; k= k + 1) {
+                Node v= nodes.get(rand.nextInt(nodes.size()));
+                Node end= nodes.get(rand.nextInt(nodes.size()));
+                int dist= A6.pathSum(A6.shortest(v, end));
+                assertEquals(dist, A6.pathSum(A6.shortestAStar(v, end, (n) -> 0, null)));
+                List<Node> path= A6.shortest(v, end, Sewers.MAX_EDGE_WEIGHT);
+                assertEquals(dist, A6.pathSum(path));
+                assertEquals(v, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+            }
+        }
+    }
+
+    /** Return the nodes of sewers, sorted by id. */
+    private static List<Node> sortedNodes(Sewers sewers) {
+        List<Node> nodes= new ArrayList<>(sewers.graph());
+        nodes.sort(Comparator.comparingLong(Node::getId));
+        return nodes;
+    }
+
     /** Check the shortest paths in g from each node to each node, as given by <br>
      * Paths.shortestPaths, matches that in pd. <br>
      * Use the ordering of nodes as given in pd.names. */
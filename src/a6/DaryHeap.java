@@ -0,0 +1,173 @@
+package a6;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import graph.PositionIndex;
+
+/** An instance is a max-heap or a min-heap of distinct values of type T <br>
+ * with priorities of type double, in which each node has up to d children. <br>
+ * With d = 2, it behaves exactly like Heap. */
+public final class DaryHeap<T> implements IndexedPriorityQueue<T> {
+
+    /** Class Invariant: <br>
+     * 1. val[0..size-1] represents a complete d-ary tree. val[0] is the root; <br>
+     * For k > 0, (k-1)/d (using int division) is the index of the parent of val[k]. <br>
+     * For k >= 0, d*k+1 .. d*k+d are the indexes of the children of val[k].
+     *
+     * 2. For k in 0..size-1, pri[k] is the priority of value val[k].
+     *
+     * 3. The values in val[0..size-1] are all different.
+     *
+     * 4. For k in 1..size-1, <br>
+     * .. if isMinHeap, pri[k] >= (the priority of val[k]'s parent), <br>
+     * .. if !isMinHeap, pri[k] <= (the priority of val[k]'s parent).
+     *
+     * 5. The keys of map are the values in val[0..size-1], and <br>
+     * if value v is in val[k], then map.get(v) = k. */
+    private final boolean isMinHeap;
+    private final int d;
+    private Object[] val;
+    private double[] pri;
+    private int size;
+    private final PositionIndex<T> map;
+
+    /** Constructor: an empty heap in which each node has up to d children. <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. <br>
+     * Throw an IllegalArgumentException if d < 2. */
+    public DaryHeap(int d, boolean isMin) {
+        this(d, isMin, false);
+    }
+
+    /** Constructor: an empty heap in which each node has up to d children. <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. <br>
+     * If identity is true, values are compared with == instead of equals (see Heap). <br>
+     * Throw an IllegalArgumentException if d < 2. */
+    public DaryHeap(int d, boolean isMin, boolean identity) {
+        if (d < 2) throw new IllegalArgumentException("d < 2");
+        this.d= d;
+        isMinHeap= isMin;
+        val= new Object[10];
+        pri= new double[10];
+        map= new PositionIndex<>(10, identity);
+    }
+
+    /** Return the number of children each node can have. */
+    public int arity() {
+        return d;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Insert v with priority p to the heap. <br>
+     * Throw an IllegalArgumentException if v is already in the heap. <br>
+     * The expected time is O(log size / log d). */
+    @Override
+    public void insert(T v, double p) throws IllegalArgumentException {
+        if (map.containsKey(v)) throw new IllegalArgumentException();
+        if (size == val.length) {
+            val= Arrays.copyOf(val, 2 * size);
+            pri= Arrays.copyOf(pri, 2 * size);
+        }
+        val[size]= v;
+        pri[size]= p;
+        map.put(v, size);
+        size++ ;
+        bubbleUp(size - 1);
+    }
+
+    @Override
+    public T peek() {
+        if (size == 0) throw new NoSuchElementException();
+        return value(0);
+    }
+
+    /** If this is a min-heap, remove and return heap value with lowest priority. <br>
+     * If this is a max-heap, remove and return heap value with highest priority. <br>
+     * The expected time is O(d log size / log d). <br>
+     * Throw a NoSuchElementException if the heap is empty. */
+    @Override
+    public T poll() {
+        if (size == 0) throw new NoSuchElementException();
+        T result= value(0);
+        map.remove(result);
+        size-- ;
+        if (size > 0) {
+            val[0]= val[size];
+            pri[0]= pri[size];
+            bubbleDown(0);
+        }
+        val[size]= null;
+        return result;
+    }
+
+    /** Change the priority of value v to p. <br>
+     * The expected time is O(log size / log d) if v moves up <br>
+     * and O(d log size / log d) if it moves down. <br>
+     * Throw an IllegalArgumentException if v is not in the heap. */
+    @Override
+    public void changePriority(T v, double p) {
+        int h= map.get(v);
+        if (h < 0) throw new IllegalArgumentException();
+        pri[h]= p;
+        bubbleUp(h);
+        bubbleDown(map.get(v));
+    }
+
+    /** Return the value in val[h]. */
+    @SuppressWarnings("unchecked")
+    private T value(int h) {
+        return (T) val[h];
+    }
+
+    /** Return true iff a value with priority p1 belongs above a value with priority p2. */
+    private boolean above(double p1, double p2) {
+        return isMinHeap ? p1 < p2 : p1 > p2;
+    }
+
+    /** Bubble val[h] up the heap to its right place. Equal priorities are not swapped. <br>
+     * Precondition: 0 <= h < size and the class invariant is true, except perhaps that <br>
+     * val[h] belongs above its parent. */
+    private void bubbleUp(int h) {
+        T v= value(h);
+        double p= pri[h];
+        while (h > 0) {
+            int parent= (h - 1) / d;
+            if (!above(p, pri[parent])) break;
+            put(h, value(parent), pri[parent]);
+            h= parent;
+        }
+        put(h, v, p);
+    }
+
+    /** Bubble val[h] down the heap to its right place. If several children have the <br>
+     * same priority, choose the leftmost one. Equal priorities are not swapped. <br>
+     * Precondition: 0 <= h < size and the class invariant is true, except perhaps that <br>
+     * val[h] belongs below one or more of its children. */
+    private void bubbleDown(int h) {
+        T v= value(h);
+        double p= pri[h];
+        while (d * h + 1 < size) {
+            int first= d * h + 1;
+            int end= Math.min(first + d, size);
+            int c= first;
+            for (int k= first + 1; k < end; k++ ) {
+                if (above(pri[k], pri[c])) c= k;
+            }
+            if (!above(pri[c], p)) break;
+            put(h, value(c), pri[c]);
+            h= c;
+        }
+        put(h, v, p);
+    }
+
+    /** Store value v with priority p in val[h] and record its position in map. */
+    private void put(int h, T v, double p) {
+        val[h]= v;
+        pri[h]= p;
+        map.put(v, h);
+    }
+}
@@ -0,0 +1,44 @@
+package a6;
+
+/** An instance is a max-queue or a min-queue of distinct values of type T <br>
+ * with priorities of type double, in which the priority of any value in it can be changed.
+ *
+ * This is the public API of Heap. Implementations differ only in how they are organized<br>
+ * and so in the time their operations take: <br>
+ * ... Heap: a binary heap in an array. <br>
+ * ... DaryHeap: a heap in an array in which each node has d children. Fewer levels make <br>
+ * ....... insert and changePriority (when a priority improves) faster, at the cost of <br>
+ * ....... more comparisons per level in poll. <br>
+ * ... PairingHeap: a tree of linked nodes. insert and improving a priority take constant <br>
+ * ....... time; poll takes amortized logarithmic time. <br>
+ * Values with equal priorities may be polled in a different order by different<br>
+ * implementations.
+ *
+ * A5's heap.Heap implements this interface too. This is the only copy of it and of <br>
+ * DaryHeap and PairingHeap: A5 builds against the sewer project (src) and uses them <br>
+ * from here, so its heap package has only the assignment's own Heap. */
+public interface IndexedPriorityQueue<T> {
+
+    /** Insert v with priority p to the queue. <br>
+     * Throw an IllegalArgumentException if v is already in the queue. */
+    void insert(T v, double p) throws IllegalArgumentException;
+
+    /** Return the size of this queue. <br>
+     * This operation takes constant time. */
+    int size();
+
+    /** If this is a min-queue, return the value with lowest priority. <br>
+     * If this is a max-queue, return the value with highest priority.<br>
+     * Do not change the queue. <br>
+     * Throw a NoSuchElementException if the queue is empty. */
+    T peek();
+
+    /** If this is a min-queue, remove and return the value with lowest priority. <br>
+     * If this is a max-queue, remove and return the value with highest priority. <br>
+     * Throw a NoSuchElementException if the queue is empty. */
+    T poll();
+
+    /** Change the priority of value v to p. <br>
+     * Throw an IllegalArgumentException if v is not in the queue. */
+    void changePriority(T v, double p);
+}
@@ -0,0 +1,169 @@
+package a6;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/** Test the contract of IndexedPriorityQueue (the public API of Heap) <br>
+ * for all its implementations. */
+class IndexedPriorityQueueTest {
+
+    /** Functions that create an empty queue of each implementation. <br>
+     * The argument is true for a min-queue and false for a max-queue. */
+    private static final List<Function<Boolean, IndexedPriorityQueue<Object>>> IMPLS= Arrays.asList(
+        (isMin) -> new Heap<>(isMin),
+        (isMin) -> new DaryHeap<>(2, isMin),
+        (isMin) -> new DaryHeap<>(3, isMin),
+        (isMin) -> new DaryHeap<>(4, isMin),
+        (isMin) -> new PairingHeap<>(isMin));
+
+    /** Poll all values of q and return them, in order. */
+    private static List<Object> pollAll(IndexedPriorityQueue<Object> q) {
+        List<Object> res= new ArrayList<>();
+        while (q.size() > 0) {
+            res.add(q.poll());
+        }
+        return res;
+    }
+
+    @Test
+    /** Test the exceptions. */
+    public void testExceptions() {
+        for (Function<Boolean, IndexedPriorityQueue<Object>> impl : IMPLS) {
+            IndexedPriorityQueue<Object> q= impl.apply(true);
+            assertThrows(NoSuchElementException.class, () -> { q.peek(); });
+            assertThrows(NoSuchElementException.class, () -> { q.poll(); });
+            assertThrows(IllegalArgumentException.class, () -> { q.changePriority(5, 1.0); });
+            q.insert(5, 5.0);
+            assertThrows(IllegalArgumentException.class, () -> { q.insert(5, 6.0); });
+            assertThrows(IllegalArgumentException.class, () -> { q.changePriority(6, 5.0); });
+            assertEquals(1, q.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> { new DaryHeap<>(1, true); });
+    }
+
+    @Test
+    /** Test insert, peek and poll on a min-queue and on a max-queue. */
+    public void testInsertPeekPoll() {
+        for (Function<Boolean, IndexedPriorityQueue<Object>> impl : IMPLS) {
+            IndexedPriorityQueue<Object> min= impl.apply(true);
+            IndexedPriorityQueue<Object> max= impl.apply(false);
+            int[] b= { 5, 3, 8, 1, 9, 2, 7, 4, 6, 0, 11, 10 };
+            for (int v : b) {
+                min.insert(v, v);
+                max.insert(v, v);
+            }
+            assertEquals(b.length, min.size());
+            assertEquals(0, min.peek());
+            assertEquals(11, max.peek());
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), pollAll(min));
+            assertEquals(Arrays.asList(11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0), pollAll(max));
+        }
+    }
+
+    @Test
+    /** Test changePriority, moving values both up and down. */
+    public void testChangePriority() {
+        for (Function<Boolean, IndexedPriorityQueue<Object>> impl : IMPLS) {
+            IndexedPriorityQueue<Object> q= impl.apply(true);
+            for (int v= 0; v < 10; v++ ) {
+                q.insert(v, v);
+            }
+            q.changePriority(0, 20);  // the root moves down
+            q.changePriority(9, -1);  // a leaf moves up
+            q.changePriority(4, 15);  // an inner value moves down
+            q.changePriority(5, 5);   // no change
+            assertEquals(9, q.poll());
+            q.changePriority(7, 0.5);
+            assertEquals(Arrays.asList(7, 1, 2, 3, 5, 6, 8, 4, 0), pollAll(q));
+        }
+    }
+
+    @Test
+    /** Test a few calls with Strings, including null. */
+    public void testStrings() {
+        for (Function<Boolean, IndexedPriorityQueue<Object>> impl : IMPLS) {
+            IndexedPriorityQueue<Object> q= impl.apply(true);
+            q.insert("abc", 5.0);
+            q.insert(null, 3.0);
+            q.insert("", 2.0);
+            assertEquals("", q.poll());
+            q.changePriority(null, 7.0);
+            assertEquals(Arrays.asList("abc", null), pollAll(q));
+        }
+    }
+
+    @Test
+    /** With d = 2, a DaryHeap polls values with equal priorities in the same order <br>
+     * as Heap, because it has the same rules for equal priorities. */
+    public void testBinaryDaryHeapMatchesHeap() {
+        Heap<Object> h= new Heap<>(true);
+        DaryHeap<Object> d= new DaryHeap<>(2, true);
+        Random rand= new Random(7);
+        for (int v= 0; v < 500; v++ ) {
+            double p= rand.nextInt(50);
+            h.insert(v, p);
+            d.insert(v, p);
+        }
+        for (int k= 0; k < 300; k++ ) {
+            int v= rand.nextInt(500);
+            double p= rand.nextInt(50);
+            h.changePriority(v, p);
+            d.changePriority(v, p);
+        }
+        assertEquals(pollAll(h), pollAll(d));
+    }
+
+    @Test
+    /** Test random inserts, polls and priority changes, with duplicate priorities, <br>
+     * checking that values are polled in order of priority. */
+    public void testBig() {
+        for (Function<Boolean, IndexedPriorityQueue<Object>> impl : IMPLS) {
+            for (boolean isMin : new boolean[] { true, false }) {
+                IndexedPriorityQueue<Object> q= impl.apply(isMin);
+                HashMap<Object, Double> pri= new HashMap<>();
+                Random rand= new Random(52);
+                int next= 0;
+                double last= 0;
+                for (int k= 0; k < 5000; k++ ) {
+                    int op= rand.nextInt(4);
+                    if (op == 0 && q.size() > 0) {
+                        Object v= q.poll();
+                        double p= pri.remove(v);
+                        assertTrue(isMin ? last <= p : last >= p);
+                        last= p;
+                    } else if (op == 1 && q.size() > 0) {
+                        // New priorities never go beyond the last polled one, so the
+                        // polled priorities must stay in order.
+                        Object v= pri.keySet().iterator().next();
+                        double p= isMin ? last + rand.nextInt(100) : last - rand.nextInt(100);
+                        q.changePriority(v, p);
+                        pri.put(v, p);
+                    } else {
+                        double p= isMin ? last + rand.nextInt(300) : last - rand.nextInt(300);
+                        q.insert(next, p);
+                        pri.put(next, p);
+                        next++ ;
+                    }
+                    assertEquals(pri.size(), q.size());
+                }
+                while (q.size() > 0) {
+                    double p= pri.remove(q.poll());
+                    assertTrue(isMin ? last <= p : last >= p);
+                    last= p;
+                }
+                assertTrue(pri.isEmpty());
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package a6;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/** An instance is a max-heap or a min-heap of distinct values of type T <br>
+ * with priorities of type double, implemented as a pairing heap: a tree of linked <br>
+ * nodes, each with any number of children, in which no node belongs above its parent.
+ *
+ * insert and a changePriority that moves a value up take constant time, <br>
+ * because they only link a tree to the root. poll takes amortized logarithmic time: <br>
+ * it melds the root's children in pairs, left to right, and then melds the pairs <br>
+ * right to left. A changePriority that moves a value down cuts the value's node out, <br>
+ * melds its children back in and reinserts it, so it takes amortized logarithmic time. */
+public final class PairingHeap<T> implements IndexedPriorityQueue<T> {
+
+    /** An instance is a node of the tree. The children of a node are a linked list: <br>
+     * child is the first child, and next is the next sibling. prev is the previous <br>
+     * sibling, or the parent if this is the first child (null for the root). */
+    private static final class Entry<T> {
+        private final T value;
+        private double priority;
+        private Entry<T> child, next, prev;
+
+        /** Constructor: a node with value v and priority p and no children. */
+        private Entry(T v, double p) {
+            value= v;
+            priority= p;
+        }
+    }
+
+    /** Class Invariant: <br>
+     * 1. root is the root of the tree (null if the heap is empty). <br>
+     * 2. For every node n other than root, <br>
+     * .. if isMinHeap, n.priority >= (the priority of n's parent), <br>
+     * .. if !isMinHeap, n.priority <= (the priority of n's parent). <br>
+     * 3. The keys of map are the values in the tree, and map.get(v) is v's node. */
+    private final boolean isMinHeap;
+    private Entry<T> root;
+    private final HashMap<T, Entry<T>> map= new HashMap<>();
+
+    /** Scratch list used by poll to hold the melded pairs */
+    private final List<Entry<T>> pairs= new ArrayList<>();
+
+    /** Constructor: an empty heap. <br>
+     * It is a min-heap if isMin is true and a max-heap if isMin is false. */
+    public PairingHeap(boolean isMin) {
+        isMinHeap= isMin;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /** Insert v with priority p to the heap. <br>
+     * Throw an IllegalArgumentException if v is already in the heap. <br>
+     * The expected time is constant. */
+    @Override
+    public void insert(T v, double p) throws IllegalArgumentException {
+        if (map.containsKey(v)) throw new IllegalArgumentException();
+        Entry<T> e= new Entry<>(v, p);
+        map.put(v, e);
+        root= meld(root, e);
+    }
+
+    @Override
+    public T peek() {
+        if (root == null) throw new NoSuchElementException();
+        return root.value;
+    }
+
+    /** If this is a min-heap, remove and return heap value with lowest priority. <br>
+     * If this is a max-heap, remove and return heap value with highest priority. <br>
+     * Amortized time: logarithmic in the size of the heap. <br>
+     * Throw a NoSuchElementException if the heap is empty. */
+    @Override
+    public T poll() {
+        if (root == null) throw new NoSuchElementException();
+        Entry<T> r= root;
+        map.remove(r.value);
+        root= mergePairs(r.child);
+        r.child= null;
+        return r.value;
+    }
+
+    /** Change the priority of value v to p. <br>
+     * Expected time: constant if v moves up, amortized logarithmic if it moves down. <br>
+     * Throw an IllegalArgumentException if v is not in the heap. */
+    @Override
+    public void changePriority(T v, double p) {
+        Entry<T> e= map.get(v);
+        if (e == null) throw new IllegalArgumentException();
+        boolean down= above(e.priority, p);
+        e.priority= p;
+        if (e == root) {
+            if (!down) return;
+            root= null;
+        } else {
+            cut(e);
+            if (!down) {
+                root= meld(root, e);
+                return;
+            }
+        }
+        // e moved down: its children may now belong above it.
+        Entry<T> children= e.child;
+        e.child= null;
+        root= meld(meld(root, mergePairs(children)), e);
+    }
+
+    /** Return true iff a value with priority p1 belongs above a value with priority p2. */
+    private boolean above(double p1, double p2) {
+        return isMinHeap ? p1 < p2 : p1 > p2;
+    }
+
+    /** Meld trees a and b (either may be null) and return the root of the result. <br>
+     * Unless b belongs above a, a stays the root. <br>
+     * Precondition: a and b are roots, i.e. have no siblings and no parent. */
+    private Entry<T> meld(Entry<T> a, Entry<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (above(b.priority, a.priority)) {
+            Entry<T> t= a;
+            a= b;
+            b= t;
+        }
+        // Make b the first child of a.
+        b.next= a.child;
+        if (a.child != null) a.child.prev= b;
+        b.prev= a;
+        a.child= b;
+        return a;
+    }
+
+    /** Remove the tree rooted at e from its parent's list of children. <br>
+     * Precondition: e is not the root. */
+    private void cut(Entry<T> e) {
+        if (e.prev.child == e) {
+            e.prev.child= e.next;
+        } else {
+            e.prev.next= e.next;
+        }
+        if (e.next != null) e.next.prev= e.prev;
+        e.next= null;
+        e.prev= null;
+    }
+
+    /** Meld the list of siblings starting at first into one tree and return its root <br>
+     * (null if first is null): meld them in pairs left to right, then meld the <br>
+     * resulting trees right to left. */
+    private Entry<T> mergePairs(Entry<T> first) {
+        if (first == null) return null;
+        pairs.clear();
+        Entry<T> a= first;
+        while (a != null) {
+            Entry<T> b= a.next;
+            Entry<T> rest= b == null ? null : b.next;
+            a.next= null;
+            a.prev= null;
+            if (b != null) {
+                b.next= null;
+                b.prev= null;
+            }
+            pairs.add(meld(a, b));
+            a= rest;
+        }
+        Entry<T> result= pairs.get(pairs.size() - 1);
+        for (int k= pairs.size() - 2; k >= 0; k-- ) {
+            result= meld(pairs.get(k), result);
+        }
+        pairs.clear();
+        return result;
+    }
+}
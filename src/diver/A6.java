@@ -7,6 +7,7 @@ import java.util.List;
 
 import graph.Edge;
 import graph.Node;
+import graph.NodePath;
 
 /** This class contains the solution to A6, shortest-path algorithm, <br>
  * and other methods for an undirected graph. */
@@ -22,6 +23,25 @@ public class A6 {
      * ---or the empty list if a path does not exist. <br>
      * Note: The empty list is a list with 0 elements ---it is not "null". */
     public static List<Node> shortest(Node v, Node end) {
+        HashMap<Node, Info> mapSF= search(v, end);
+        // no path from v to end
+        if (mapSF == null) return new LinkedList<>();
+        return path(mapSF, end);
+    }
+
+    /** = the shortest path from node v to node end as a NodePath, which also gives <br>
+     * the distance from v to each node on it (computed during the search) <br>
+     * ---or NodePath.EMPTY if a path does not exist. */
+    public static NodePath shortestPath(Node v, Node end) {
+        HashMap<Node, Info> mapSF= search(v, end);
+        if (mapSF == null) return NodePath.EMPTY;
+        return nodePath(mapSF, end);
+    }
+
+    /** Run Dijkstra's algorithm from v until end is settled and return the map with <br>
+     * the Info of every node in the settled and frontier sets ---or null if there is <br>
+     * no path from v to end. */
+    private static HashMap<Node, Info> search(Node v, Node end) {
         /* TODO Implement this method.
          * Read the A6 assignment handout for all details.
          * Remember, the graph is undirected. */
@@ -41,7 +61,7 @@ public class A6 {
 
         while (F.size() > 0) {
             Node f= F.poll();
-            if (f == end) return path(mapSF, end);
+            if (f.equals(end)) return mapSF;
             int d= mapSF.get(f).dist;
             for (Edge edge : f.getExits()) {
                 Node w= edge.getOther(f);
@@ -58,8 +78,7 @@ public class A6 {
             }
         }
 
-        // no path from v to end
-        return new LinkedList<>();
+        return null;
     }
 
     /** An instance contains information about a node: <br>
@@ -102,6 +121,29 @@ public class A6 {
         return path;
     }
 
+    /** = the path from the start node to node end, as a NodePath. The distances <br>
+     * along it are the dists in mapSF, so no edge has to be looked up. <br>
+     * Precondition: mapSF contains all the necessary information about<br>
+     * ............. the path, and the nodes on it are settled. */
+    public static NodePath nodePath(HashMap<Node, Info> mapSF, Node end) {
+        int n= 0;
+        for (Node p= end; p != null; p= mapSF.get(p).bkptr) {
+            n++ ;
+        }
+        Node[] nodes= new Node[n];
+        int[] dist= new int[n];
+        Node p= end;
+        // invariant: nodes[i+1..n-1] and dist[i+1..n-1] are filled in, and
+        // p is node i of the path.
+        for (int i= n - 1; i >= 0; i-- ) {
+            Info info= mapSF.get(p);
+            nodes[i]= p;
+            dist[i]= info.dist;
+            p= info.bkptr;
+        }
+        return new NodePath(nodes, dist);
+    }
+
     /** = the sum of the weights of the edges on path p. <br>
      * Precondition: p contains at least 1 node. <br>
      * If 1 node, it's a path of length 0, i.e. with no edges. */
@@ -0,0 +1,106 @@
+package diver;
+
+import graph.DistanceOracle;
+import graph.FleeState;
+import graph.Node;
+
+/** An instance chooses, one at a time, the coins McDiver goes for in the flee phase, <br>
+ * keeping its candidates from one choice to the next instead of rebuilding them.
+ *
+ * The candidates are the coin tiles in a max-heap, by value / (steps to the coin + 1). <br>
+ * When a coin is asked for after McDiver has moved, every candidate's priority is <br>
+ * recomputed from McDiver's new node and updated in place with changePriority, using <br>
+ * distances from a DistanceOracle, so no path is searched for and no list is sorted <br>
+ * again. The update is eager, not lazy: a priority from an earlier node can be too low <br>
+ * as well as too high, so recomputing only the coins that reach the top of the heap <br>
+ * would miss coins that McDiver has come closer to. <br>
+ * A coin that was picked up on the way to another one, or that no longer fits (the steps <br>
+ * to it and then to the exit are more than the steps left), is dropped when it reaches <br>
+ * the top of the heap. By the triangle inequality, moving never makes a coin fit again, <br>
+ * so it never has to come back.
+ *
+ * So each choice takes time O(K log K) for K candidates left, and a flee does not <br>
+ * depend on the size of the graph, except for building the oracle and walking. */
+public final class FleePlanner {
+
+    /** The shortest distances; McDiver's node, its coins and the exit are keys */
+    private final DistanceOracle oracle;
+
+    /** The key of the exit */
+    private final int exit;
+
+    /** The candidate coins, as keys of oracle, in a max-heap by value / (steps + 1) */
+    private final Heap<Integer> candidates= new Heap<>(false);
+
+    /** The keys in candidates are in keys[0..count-1] (with perhaps some dropped ones, <br>
+     * which are removed at the next update) */
+    private final int[] keys;
+    private int count;
+
+    /** dropped[k] is true iff key k was a candidate and has been dropped or chosen */
+    private final boolean[] dropped;
+
+    /** The key of McDiver's node when the priorities were last computed */
+    private int here;
+
+    /** Constructor: a planner for state, all of whose coin tiles are candidates. <br>
+     * Throw an IllegalArgumentException if McDiver's node or the exit is not a key of <br>
+     * oracle, as they are in DistanceOracle.forFlee(state). */
+    public FleePlanner(FleeState state, DistanceOracle oracle) {
+        this.oracle= oracle;
+        here= oracle.indexOf(state.currentNode());
+        exit= oracle.indexOf(state.exit());
+        if (here < 0 || exit < 0) {
+            throw new IllegalArgumentException("current node and exit must be keys");
+        }
+        keys= new int[oracle.size()];
+        dropped= new boolean[oracle.size()];
+        for (int k= 0; k < oracle.size(); k++ ) {
+            if (k != here && k != exit && oracle.key(k).getTile().coins() > 0) {
+                keys[count]= k;
+                count++ ;
+                candidates.insert(k, priority(k));
+            }
+        }
+    }
+
+    /** Return the coin tile McDiver should go to next from its current node, or null if no <br>
+     * coin left can be taken with McDiver still reaching the exit in the steps left. <br>
+     * The node returned is no longer a candidate. Precondition: McDiver's node is a key <br>
+     * of oracle (as it is after going to a node returned by this method). */
+    public Node next(FleeState state) {
+        int k= oracle.indexOf(state.currentNode());
+        if (k < 0) throw new IllegalArgumentException("current node must be a key");
+        if (k != here) update(k);
+        int steps= state.stepsToGo();
+        while (candidates.size() > 0) {
+            int c= candidates.poll();
+            dropped[c]= true;
+            Node n= oracle.key(c);
+            long needed= (long) oracle.distance(here, c) + oracle.distance(c, exit);
+            if (n.getTile().coins() > 0 && needed <= steps) return n;
+        }
+        return null;
+    }
+
+    /** McDiver has moved to key k: recompute the priorities of the candidates from k, <br>
+     * and forget the keys that have been dropped. */
+    private void update(int k) {
+        here= k;
+        int m= 0;
+        for (int i= 0; i < count; i++ ) {
+            int c= keys[i];
+            if (!dropped[c]) {
+                keys[m]= c;
+                m++ ;
+                candidates.changePriority(c, priority(c));
+            }
+        }
+        count= m;
+    }
+
+    /** Return the priority of key c from key here. */
+    private double priority(int c) {
+        return oracle.key(c).getTile().coins() / (oracle.distance(here, c) + 1.0);
+    }
+}
@@ -0,0 +1,96 @@
+package diver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.DistanceOracle;
+import graph.DistanceOracleTest.FakeFleeState;
+import graph.Node;
+import graph.SewerPool;
+
+/** JUnit tests for class FleePlanner. */
+public class FleePlannerTest {
+
+    /** Extra steps, beyond the shortest way out, given to the flees of the tests */
+    private static final int[] EXTRA= { 0, 10, 100, 1000, 100000 };
+
+    /** Go for the coins chosen by a FleePlanner for state, one at a time, then to the <br>
+     * exit, checking that each coin chosen has coins and leaves enough steps to get from <br>
+     * it to the exit. Return the set of coin tiles chosen. */
+    private static Set<Node> flee(FakeFleeState state) {
+        DistanceOracle oracle= DistanceOracle.forFlee(state);
+        int exit= oracle.indexOf(state.exit());
+        FleePlanner planner= new FleePlanner(state, oracle);
+        Set<Node> chosen= new HashSet<>();
+        for (Node n= planner.next(state); n != null; n= planner.next(state)) {
+            int here= oracle.indexOf(state.currentNode());
+            int c= oracle.indexOf(n);
+            assertTrue(n.getTile().coins() > 0);
+            assertTrue(chosen.add(n));
+            assertTrue(oracle.distance(here, c) + oracle.distance(c, exit) <= state.stepsToGo());
+            state.walk(oracle.path(here, n));
+        }
+        state.walk(oracle.path(oracle.indexOf(state.currentNode()), state.exit()));
+        assertEquals(state.exit(), state.currentNode());
+        return chosen;
+    }
+
+    /** Test that, for a few games and several numbers of steps, the planner never chooses <br>
+     * a coin from which McDiver could not then reach the exit, so McDiver always gets out. */
+    @Test
+    public void testAlwaysGetsOut() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            for (int extra : EXTRA) {
+                flee(new FakeFleeState(SewerPool.generate(seed), extra));
+            }
+        }
+    }
+
+    /** Test that, with steps to spare, every coin is picked up, and that once the planner <br>
+     * returns null, it keeps doing so. */
+    @Test
+    public void testAllCoins() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), 1000000);
+            Set<Node> chosen= flee(state);
+            for (Node n : state.allNodes()) {
+                assertEquals(0, n.getTile().coins());
+            }
+            assertTrue(chosen.size() > 0);
+
+            DistanceOracle oracle= DistanceOracle.forFlee(state);
+            FleePlanner planner= new FleePlanner(state, oracle);
+            assertNull(planner.next(state));
+            assertNull(planner.next(state));
+        }
+    }
+
+    /** Test the exceptions: McDiver's node or the exit not a key of the oracle. */
+    @Test
+    public void testExceptions() {
+        FakeFleeState state= new FakeFleeState(SewerPool.generate(0), 1000);
+        DistanceOracle exitOnly= new DistanceOracle(state.allNodes(), List.of(state.exit()));
+        DistanceOracle startOnly= new DistanceOracle(state.allNodes(),
+            List.of(state.currentNode()));
+        assertThrows(IllegalArgumentException.class, () -> new FleePlanner(state, exitOnly));
+        assertThrows(IllegalArgumentException.class, () -> new FleePlanner(state, startOnly));
+
+        DistanceOracle oracle= DistanceOracle.forFlee(state);
+        FleePlanner planner= new FleePlanner(state, oracle);
+        for (Node n : state.currentNode().getNeighbors()) {
+            if (oracle.indexOf(n) < 0) {
+                state.moveTo(n);
+                assertThrows(IllegalArgumentException.class, () -> planner.next(state));
+                return;
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@ package diver;
 import java.lang.reflect.Array;
 import java.util.*;
 
+import graph.PositionIndex;
+
 /** An instance is a max-heap or a min-heap of distinct values of type T <br>
  * with priorities of type double. */
 public final class Heap<T> {
@@ -39,18 +41,20 @@ public final class Heap<T> {
 	 *
 	 * 5. The keys of map are the values in b[0..size-1]. This implies that size = map.size().
 	 *
-	 * 6. if value v is in b[k], then map.get(v) = k. */
+	 * 6. if value v is in b[k], then map.get(v) = k. <br>
+	 * map is a PositionIndex, not a HashMap, so that looking up or moving a value does <br>
+	 * not box its index into an Integer. */
 	protected final boolean isMinHeap;
 	protected Pair[] b;
 	protected int size;
-	protected HashMap<T, Integer> map;
+	protected PositionIndex<T> map;
 
 	/** Constructor: an empty heap with capacity 10. <br>
 	 * It is a min-heap if isMin is true and a max-heap if isMin is false. */
 	public Heap(boolean isMin) {
 		isMinHeap= isMin;
 		b= createPairArray(10);
-		map= new HashMap<>();
+		map= new PositionIndex<>(false);
 	}
 
 	/** If size = length of b, double the length of array b. <br>
@@ -256,8 +260,10 @@ public final class Heap<T> {
 		// TODO 8: When this method is correct, all testing procedures
 		// will find no errors.
 
-		Integer index= map.get(v);
-		if (index == null) throw new IllegalArgumentException("v is not in the heap");
+		int index= map.get(v);
+		if (index == PositionIndex.ABSENT) {
+			throw new IllegalArgumentException("v is not in the heap");
+		}
 		double oldP= b[index].priority;
 		b[index].priority= p;
 		int t= compareTo(p, oldP);
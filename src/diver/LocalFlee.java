@@ -0,0 +1,176 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import graph.Edge;
+import graph.FleeState;
+import graph.Node;
+
+/** An instance gets McDiver out of flee sewers too large for a DistanceOracle, picking <br>
+ * up coins on the way. McDiver uses it when the oracle's tables, a distance and a <br>
+ * predecessor for every (coin tile, node) pair, would not fit in memory.
+ *
+ * One Dijkstra search from the exit gives the distance from every node to the exit, in <br>
+ * an array indexed by node id. Then, coin by coin, a local search from McDiver's node <br>
+ * settles at most LOCAL_NODES nodes and looks at the first LOCAL_COINS coin tiles it <br>
+ * reaches; McDiver goes to the one with the best value / (steps to it + 1) among those <br>
+ * it can reach and still get from to the exit in the steps left. When no coin fits, <br>
+ * McDiver goes down the distances to the exit. So McDiver always gets out, and the <br>
+ * memory used is an int per node id, plus what the searches keep in their frontiers.
+ *
+ * Precondition: node ids are in 0..Integer.MAX_VALUE - 1, as they are for Sewers and <br>
+ * CompactSewers, where a node's id is the index of its tile. */
+public final class LocalFlee {
+
+    /** The most nodes a local search settles */
+    public static final int LOCAL_NODES= 4096;
+
+    /** The most coin tiles a local search looks at */
+    public static final int LOCAL_COINS= 16;
+
+    /** Distance of a node not (yet) reached by a search */
+    private static final int NONE= Integer.MAX_VALUE;
+
+    /** An entry of a search frontier: a node and its distance when it was added. <br>
+     * A node can be in a frontier several times; only its shortest entry is used. */
+    private static final class Entry {
+        final Node node;
+        final int dist;
+
+        Entry(Node node, int dist) {
+            this.node= node;
+            this.dist= dist;
+        }
+    }
+
+    /** Orders entries by distance */
+    private static final Comparator<Entry> BY_DIST= Comparator.comparingInt(e -> e.dist);
+
+    private final FleeState state;
+
+    /** exitDist[id] is the distance from the node with id id to the exit (NONE if the <br>
+     * exit cannot be reached from it) */
+    private final int[] exitDist;
+
+    /** Constructor: an instance for state, with the distances to its exit computed. */
+    public LocalFlee(FleeState state) {
+        this.state= state;
+        int maxId= 0;
+        for (Node n : state.allNodes()) {
+            maxId= Math.max(maxId, id(n));
+        }
+        exitDist= new int[maxId + 1];
+        Arrays.fill(exitDist, NONE);
+
+        PriorityQueue<Entry> frontier= new PriorityQueue<>(BY_DIST);
+        exitDist[id(state.exit())]= 0;
+        frontier.add(new Entry(state.exit(), 0));
+        while (!frontier.isEmpty()) {
+            Entry f= frontier.poll();
+            if (f.dist > exitDist[id(f.node)]) continue; // a stale entry
+            for (Edge e : f.node.getExits()) {
+                Node w= e.getOther(f.node);
+                int d= f.dist + e.length;
+                if (d < exitDist[id(w)]) {
+                    exitDist[id(w)]= d;
+                    frontier.add(new Entry(w, d));
+                }
+            }
+        }
+    }
+
+    /** Return the id of n, as an index into exitDist. */
+    private static int id(Node n) {
+        return (int) n.getId();
+    }
+
+    /** Go for coins, one at a time, as long as one fits, then to the exit. */
+    public void flee() {
+        for (List<Node> p= nextCoin(); p != null; p= nextCoin()) {
+            walk(p);
+        }
+        walkToExit();
+    }
+
+    /** Return the path, without McDiver's node, to the coin tile McDiver should go to <br>
+     * next, found by a local search from McDiver's node, or null if the search reaches <br>
+     * no coin tile McDiver can go to and still get to the exit in the steps left. */
+    private List<Node> nextCoin() {
+        Node here= state.currentNode();
+        int steps= state.stepsToGo();
+        Map<Node, Integer> dist= new HashMap<>();
+        Map<Node, Node> pred= new HashMap<>();
+        PriorityQueue<Entry> frontier= new PriorityQueue<>(BY_DIST);
+        dist.put(here, 0);
+        frontier.add(new Entry(here, 0));
+
+        Node best= null;
+        double bestValue= 0;
+        int settled= 0;
+        int coins= 0;
+        while (!frontier.isEmpty() && settled < LOCAL_NODES && coins < LOCAL_COINS) {
+            Entry f= frontier.poll();
+            if (f.dist > dist.get(f.node)) continue; // a stale entry
+            // By the triangle inequality, no coin beyond f fits if f itself does not.
+            if ((long) f.dist + exitDist[id(f.node)] > steps) continue;
+            settled++ ;
+            int c= f.node.getTile().coins();
+            if (c > 0 && !f.node.equals(state.exit())) {
+                coins++ ;
+                double value= c / (f.dist + 1.0);
+                if (value > bestValue) {
+                    best= f.node;
+                    bestValue= value;
+                }
+            }
+            for (Edge e : f.node.getExits()) {
+                Node w= e.getOther(f.node);
+                int d= f.dist + e.length;
+                Integer old= dist.get(w);
+                if (old == null || d < old) {
+                    dist.put(w, d);
+                    pred.put(w, f.node);
+                    frontier.add(new Entry(w, d));
+                }
+            }
+        }
+        if (best == null) return null;
+
+        List<Node> path= new ArrayList<>();
+        for (Node n= best; !n.equals(here); n= pred.get(n)) {
+            path.add(n);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Move to the nodes of path, in order; the first is a neighbor of McDiver's node. */
+    private void walk(List<Node> path) {
+        for (Node n : path) {
+            state.moveTo(n);
+        }
+    }
+
+    /** Go to the exit by a shortest path: at each node, to a neighbor whose distance to <br>
+     * the exit is that of the node less the length of the edge between them. */
+    private void walkToExit() {
+        Node cur= state.currentNode();
+        while (exitDist[id(cur)] > 0) {
+            for (Edge e : cur.getExits()) {
+                Node w= e.getOther(cur);
+                if (exitDist[id(w)] + e.length == exitDist[id(cur)]) {
+                    state.moveTo(w);
+                    cur= w;
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package diver;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import graph.DistanceOracleTest.FakeFleeState;
+import graph.Node;
+import graph.SewerPool;
+
+/** JUnit tests for class LocalFlee. */
+public class LocalFleeTest {
+
+    /** Extra steps, beyond the shortest way out, given to the flees of the tests */
+    private static final int[] EXTRA= { 0, 10, 100, 1000, 100000 };
+
+    /** Test that, for a few games and several numbers of steps, McDiver always gets out <br>
+     * (FakeFleeState throws if McDiver runs out of steps). */
+    @Test
+    public void testAlwaysGetsOut() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            for (int extra : EXTRA) {
+                FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), extra);
+                new LocalFlee(state).flee();
+                assertEquals(state.exit(), state.currentNode());
+            }
+        }
+    }
+
+    /** Test that, with no steps to spare, McDiver goes straight to the exit, and that, <br>
+     * with steps to spare, it picks up every coin of a game's sewers, which are small <br>
+     * enough for each local search to reach them all. */
+    @Test
+    public void testCoins() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), 0);
+            new LocalFlee(state).flee();
+            assertEquals(0, state.stepsToGo());
+
+            state= new FakeFleeState(SewerPool.generate(seed), 1000000);
+            new LocalFlee(state).flee();
+            assertEquals(state.exit(), state.currentNode());
+            for (Node n : state.allNodes()) {
+                assertEquals(0, n.getTile().coins());
+            }
+        }
+    }
+}
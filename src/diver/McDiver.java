@@ -1,19 +1,45 @@
 package diver;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
-
+import graph.DistanceOracle;
 import graph.FindState;
 import graph.FleeState;
 import graph.Node;
-import graph.NodeStatus;
+import graph.NodePath;
 import graph.SewerDiver;
 
 public class McDiver extends SewerDiver {
-    public List<Node> coinList;// created a coinList that is used latter for record all coins
+    /** The most entries (coin tiles + 2, times nodes) of the DistanceOracle built by <br>
+     * flee; above this, flee uses a LocalFlee. At 16M entries, the oracle's tables <br>
+     * take about 128 MB. */
+    public static final long MAX_ORACLE_ENTRIES= 1 << 24;
+
+    /** Shortest paths between McDiver's starting node, the coins and the exit, <br>
+     * computed once at the start of flee (null before that) */
+    private DistanceOracle oracle;
+
+    /** Plans the order in which flee visits the coins */
+    private final RoutePlanner planner;
+
+    /** Whether flee follows a route planned by planner (true) or goes for one <br>
+     * coin at a time, as chosen by a FleePlanner (false) */
+    private final boolean planRoute;
+
+    /** Constructor: a McDiver whose flee follows a planned route, with seed 0 for <br>
+     * the planner. Use McDiver(true, seed) when the game's seed is known. */
+    public McDiver() {
+        this(true, 0);
+    }
+
+    /** Constructor: a McDiver whose flee follows a route planned by a RoutePlanner <br>
+     * if planRoute is true, and otherwise goes for one coin at a time, as chosen by <br>
+     * a FleePlanner. The FleePlanner usually collects fewer coins, but it is faster <br>
+     * and does not need the RoutePlanner's table of distances between coins. <br>
+     * seed is the seed of the game: the RoutePlanner uses it, so the route for a <br>
+     * game is always the same. */
+    public McDiver(boolean planRoute, long seed) {
+        this.planRoute= planRoute;
+        planner= new RoutePlanner(seed);
+    }
 
     /** Find the ring in as few steps as possible. Once you get there, <br>
      * you must return from this function in order to pick<br>
@@ -52,8 +78,7 @@ public class McDiver extends SewerDiver {
         // If you don't succeed, you can always use the first one.
         //
         // Use this same process on the second method, flee.
-        HashSet<Long> visited= new HashSet<>(); // created a set to record visited data
-        dfs(state, visited);// run dfs to find coin
+        new Explorer(state).findRing();// best-first search of a map built on the way
     }
 
     /** Flee --get out of the sewer system before the steps are all used, trying to <br>
@@ -87,122 +112,79 @@ public class McDiver extends SewerDiver {
         // with a good specification, and call it from this one.
         // findShortestExit(state);
         // trying to get more coins
-        findValueExit(state);// run method to find coins and exit
-
+        if (tooLarge(state)) {
+            new LocalFlee(state).flee();// local searches instead of an oracle
+            return;
+        }
+        oracle= DistanceOracle.forFlee(state);
+        if (planRoute) {
+            findRouteExit(state);// follow a planned coin route to the exit
+        } else {
+            findValueExit(state);// go for the best coin in reach, one at a time
+        }
     }
 
-    /** Writing a dfs method to find where the coins at The input includes the current state as well
-     * as the visited state ID */
-    public void dfs(FindState state, HashSet<Long> visited) {
-        if (state.distanceToRing() == 0) { return; }// return if it is found
-        long CurrLocation= state.currentLocation();
-        visited.add(CurrLocation);
-        ArrayList<NodeStatus> SortN= new ArrayList<>();
-        for (NodeStatus n : state.neighbors()) {
-            if (!visited.contains(n.getId())) {
-                SortN.add(n);
-            }
-        }// Record all the valid neighbors for current state to an arrayList
-        Collections.sort(SortN, new Comparator<NodeStatus>() {
-            @Override
-            public int compare(NodeStatus x, NodeStatus y) {
-                return x.getDistanceToRing() < y.getDistanceToRing() ? -1 : 1;
-            }
-        });// Using comparator to re-order the arraylist so that we run the closest one first
-        for (NodeStatus n : SortN) {
-            state.moveTo(n.getId());
-            dfs(state, visited);
-            if (state.distanceToRing() == 0) { return; }
-            state.moveTo(CurrLocation);// backtracking
+    /** Return true iff the tables of DistanceOracle.forFlee(state), with an entry for <br>
+     * every (coin tile, node) pair, would have more than MAX_ORACLE_ENTRIES entries, <br>
+     * so that flee should use a LocalFlee instead. */
+    private static boolean tooLarge(FleeState state) {
+        long nodes= state.allNodes().size();
+        if (nodes * nodes <= MAX_ORACLE_ENTRIES) return false;
+        long coinTiles= 0;
+        for (Node n : state.allNodes()) {
+            if (n.getTile().coins() > 0) coinTiles++ ;
         }
-
-        /*        for (NodeStatus n : state.neighbors()) {
-            if (!visited.contains(n.getId())) {
-                state.moveTo(n.getId());
-                dfs(state, visited);
-                if (state.distanceToRing() == 0) { return; }
-                state.moveTo(CurrLocation);
-        
-            } // worked code without improvement.
-        }*/
+        return (coinTiles + 2) * nodes > MAX_ORACLE_ENTRIES;
     }
 
     /** Create a function that finds the shortest path from currentNode to exit Used A6 for the
      * shortest path method. */
     public void findShortestExit(FleeState state) {
         if (state.currentNode().equals(state.exit())) { return; }
-        List<Node> shortest= A6.shortest(state.currentNode(), state.exit());
-        while (!state.currentNode().equals(state.exit())) {
-            for (Node n : shortest) {
-                if (state.currentNode().getNeighbors().contains(n)) {
-                    state.moveTo(n);
-                }
-            }
-        }
+        walk(state, pathTo(state, state.exit()));
     }
 
-    /** Based on the findShortestExit() Create a function that takes coins along exiting Based on
-     * the coins on the graph, find the highest values it can take if possible/not breaking the
-     * steps rules move to take that coin */
-    public void findValueExit(FleeState state) {
-        if (state.currentNode().equals(state.exit())) { return; }
-        boolean hasMoved= false;
-        SetUpCoinList(state);
-        if (coinList.size() == 0) {
-            findShortestExit(state);
-            return;
-        }
-        for (int i= 0; i < coinList.size(); i++ ) {
-            Node GoVal= coinList.get(i);
-            if (CanReach(GoVal, state) == true) {
-                List<Node> shortest= A6.shortest(state.currentNode(), GoVal);
-                while (!state.currentNode().equals(GoVal)) {
-                    for (Node n : shortest) {
-                        if (state.currentNode().getNeighbors().contains(n)) {
-                            state.moveTo(n);
-                        }
-                    }
-                }
-                hasMoved= true;
-                break;
-            }
+    /** Return a shortest path from the current node to node n: from the oracle if the <br>
+     * current node is one of its keys (as it is after each move of findValueExit), <br>
+     * and from A6 otherwise. */
+    private NodePath pathTo(FleeState state, Node n) {
+        int k= oracle == null ? -1 : oracle.indexOf(state.currentNode());
+        if (k < 0) return A6.shortestPath(state.currentNode(), n);
+        return oracle.path(k, n);
+    }
 
+    /** Move along path p, which starts at the current node, to its last node. <br>
+     * This takes time linear in the length of p. */
+    private void walk(FleeState state, NodePath p) {
+        for (int i= 1; i < p.size(); i++ ) {
+            state.moveTo(p.get(i));
         }
-        if (hasMoved == true) {
-            findValueExit(state);
-        } else {
-            findShortestExit(state);
-        }
-
     }
 
-    /** Identify if a node is reachable given the current state and steps left */
-    public boolean CanReach(Node GoVal, FleeState state) {
-        List<Node> shortest= A6.shortest(state.currentNode(), GoVal);
-        List<Node> exitPath= A6.shortest(GoVal, state.exit());
-        if (state.stepsToGo() < A6.pathSum(exitPath) + A6.pathSum(shortest)) {
-            return false;
-        } else {
-            return true;
+    /** Based on the findShortestExit() Create a function that takes coins along exiting Based on
+     * the coins on the graph, find the best coin it can take if possible/not breaking the
+     * steps rules move to take that coin. The coins are chosen by a FleePlanner, which
+     * keeps them in a heap from one pickup to the next, and the paths come from the oracle. */
+    public void findValueExit(FleeState state) {
+        if (oracle == null || oracle.indexOf(state.currentNode()) < 0) {
+            oracle= DistanceOracle.forFlee(state);
         }
+        FleePlanner coins= new FleePlanner(state, oracle);
+        for (Node n= coins.next(state); n != null; n= coins.next(state)) {
+            walk(state, pathTo(state, n));
+        }
+        findShortestExit(state);
     }
 
-    /** Setting up the coin list and sorted with the highest */
-    public void SetUpCoinList(FleeState state) { // create a coin List that has all node with coins
-        coinList= new ArrayList<>();
-        for (Node n : state.allNodes()) {
-            if (n.getTile().coins() > 0) {
-                coinList.add(n);
-            }
+    /** Follow the route of planner from the current node to the exit, going to each node <br>
+     * on it by a shortest path. A coin tile that was already passed on the way to an <br>
+     * earlier one is skipped; by the triangle inequality, that only saves steps, so <br>
+     * McDiver still gets out in time. Precondition: oracle is DistanceOracle.forFlee(state). */
+    public void findRouteExit(FleeState state) {
+        for (Node n : planner.plan(state, oracle)) {
+            if (!n.equals(state.exit()) && n.getTile().coins() == 0) continue;
+            walk(state, pathTo(state, n));
         }
-        Collections.sort(coinList, new Comparator<Node>() {// Sort the list with all the nodes with
-                                                           // highest coin first
-            @Override
-            public int compare(Node x, Node y) {
-                return x.getTile().coins() <= y.getTile().coins() ? 1 : -1;
-            }
-        });
-
     }
 
 }
@@ -0,0 +1,371 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import graph.DistanceOracle;
+import graph.FleeState;
+import graph.Node;
+
+/** An instance plans McDiver's route for the flee phase: the order in which to visit <br>
+ * tiles with coins, ending at the exit, that collects as many coins as it can within <br>
+ * the steps left. This is the orienteering problem, which is NP-hard, so the planner <br>
+ * uses heuristics:
+ *
+ * 1. Greedy insertion: repeatedly insert the coin with the highest ratio of value to <br>
+ * extra steps, at the place in the route where it adds the fewest steps, as long as <br>
+ * the route still fits in the steps left. <br>
+ * 2. Local search: shorten the route with 2-opt (reverse a part of it) and or-opt <br>
+ * (move a run of up to OR_OPT_MAX stops elsewhere), then use the steps saved to <br>
+ * insert more coins. <br>
+ * 3. Perturbation: take a few stops out of the best route, refill it without them, <br>
+ * and do 2 again; keep the result if it collects more coins (iterated local search).
+ *
+ * All distances come from a DistanceOracle, so planning does not search the graph. <br>
+ * A route returned is never longer than the steps left and always ends at the exit, <br>
+ * so following it by shortest paths always gets McDiver out. Perturbation uses a <br>
+ * Random with the planner's seed (McDiver uses the game's seed), and the number of <br>
+ * rounds is fixed, so for a seed the route is always the same, however busy the <br>
+ * machine is. */
+public final class RoutePlanner {
+
+    /** Default number of perturbation rounds */
+    public static final int DEFAULT_ROUNDS= 200;
+
+    /** Longest run of stops that or-opt moves */
+    private static final int OR_OPT_MAX= 3;
+
+    /** Most stops that one perturbation round takes out */
+    private static final int PERTURB_MAX= 4;
+
+    /** The seed of the Random used for perturbation */
+    private final long seed;
+
+    /** The number of perturbation rounds */
+    private final int rounds;
+
+    /** Constructor: a planner that does DEFAULT_ROUNDS perturbation rounds, using a <br>
+     * Random seeded with seed. */
+    public RoutePlanner(long seed) {
+        this(seed, DEFAULT_ROUNDS);
+    }
+
+    /** Constructor: a planner that does up to rounds perturbation rounds, using a Random <br>
+     * seeded with seed. With rounds = 0, it does only greedy insertion and local search. <br>
+     * Throw an IllegalArgumentException if rounds is negative. */
+    public RoutePlanner(long seed, int rounds) {
+        if (rounds < 0) throw new IllegalArgumentException("rounds < 0");
+        this.seed= seed;
+        this.rounds= rounds;
+    }
+
+    /** Return the nodes to go to from the current node of state, in order: tiles with <br>
+     * coins, then the exit (always last, and the only node if there is no time for coins). <br>
+     * The sum of the shortest distances between consecutive nodes, starting at the current <br>
+     * node, is at most state.stepsToGo(). Nodes that are not keys of oracle are not visited. <br>
+     * Throw an IllegalArgumentException if the current node or the exit is not a key of <br>
+     * oracle (as they are in DistanceOracle.forFlee(state)), or if the exit cannot be <br>
+     * reached in state.stepsToGo() steps. */
+    public List<Node> plan(FleeState state, DistanceOracle oracle) {
+        int start= oracle.indexOf(state.currentNode());
+        int exit= oracle.indexOf(state.exit());
+        if (start < 0 || exit < 0) {
+            throw new IllegalArgumentException("current node and exit must be keys");
+        }
+        int[] value= new int[oracle.size()];
+        for (int k= 0; k < value.length; k++ ) {
+            value[k]= oracle.key(k).getTile().coins();
+        }
+        int[] route= plan(oracle, start, exit, value, state.stepsToGo());
+        List<Node> nodes= new ArrayList<>(route.length - 1);
+        for (int i= 1; i < route.length; i++ ) {
+            nodes.add(oracle.key(route[i]));
+        }
+        return nodes;
+    }
+
+    /** Return a route from key start to key exit of oracle, as an array of keys whose first <br>
+     * element is start and whose last element is exit. Each other element is a different <br>
+     * key k with value[k] > 0, other than start and exit. The route tries to maximize the <br>
+     * sum of value[k] over those keys, subject to the sum of the distances between <br>
+     * consecutive keys being at most budget. <br>
+     * Throw an IllegalArgumentException if value.length != oracle.size() or if the <br>
+     * distance from start to exit is more than budget. */
+    public int[] plan(DistanceOracle oracle, int start, int exit, int[] value, int budget) {
+        if (value.length != oracle.size()) {
+            throw new IllegalArgumentException("value.length != oracle.size()");
+        }
+        if (oracle.distance(start, exit) > budget) {
+            throw new IllegalArgumentException("Exit farther than " + budget + " steps");
+        }
+        Search s= new Search(oracle, start, exit, value, budget);
+        Tour best= new Tour(s, start, exit);
+        s.improve(best);
+
+        Random rand= new Random(seed);
+        for (int r= 0; r < rounds && best.n > 2; r++ ) {
+            Tour t= best.copy();
+            s.perturb(t, rand);
+            if (t.value > best.value || t.value == best.value && t.length < best.length) {
+                best= t;
+            }
+        }
+        return Arrays.copyOf(best.stops, best.n);
+    }
+
+    /** An instance is a route from start to exit: stops[0..n-1], with stops[0] = start and <br>
+     * stops[n-1] = exit. length is the sum of the distances between consecutive stops, <br>
+     * value is the sum of the values of the stops between them, and on[k] is true iff <br>
+     * key k is one of those stops. */
+    private static final class Tour {
+        private int[] stops;
+        private int n;
+        private int length;
+        private long value;
+        private boolean[] on;
+
+        /** Constructor: the route that goes straight from start to exit. */
+        private Tour(Search s, int start, int exit) {
+            stops= new int[] { start, exit };
+            n= 2;
+            length= s.d[start][exit];
+            on= new boolean[s.d.length];
+        }
+
+        /** Constructor: an uninitialized route, for copy. */
+        private Tour() {}
+
+        /** Return a copy of this route. */
+        private Tour copy() {
+            Tour t= new Tour();
+            t.stops= Arrays.copyOf(stops, stops.length);
+            t.n= n;
+            t.length= length;
+            t.value= value;
+            t.on= on.clone();
+            return t;
+        }
+    }
+
+    /** An instance holds what the planning of one route needs: the distances between all <br>
+     * pairs of keys, the values, the budget, and the keys that may be visited. */
+    private static final class Search {
+        /** d[i][j] is the distance from key i to key j */
+        private final int[][] d;
+        private final int[] value;
+        private final int budget;
+
+        /** The keys that may be stops: those with positive value, other than start and <br>
+         * exit, that can be reached from start. */
+        private final int[] candidates;
+
+        /** taboo[k] is true iff key k may not be inserted in the current round */
+        private final boolean[] taboo;
+
+        /** Constructor: a search over oracle, from key start to key exit. */
+        private Search(DistanceOracle oracle, int start, int exit, int[] value, int budget) {
+            int K= oracle.size();
+            d= new int[K][K];
+            int[] cand= new int[K];
+            int c= 0;
+            for (int i= 0; i < K; i++ ) {
+                for (int j= 0; j < K; j++ ) {
+                    d[i][j]= oracle.distance(i, j);
+                }
+                if (i != start && i != exit && value[i] > 0 &&
+                    oracle.distance(start, i) != DistanceOracle.UNREACHABLE) {
+                    cand[c]= i;
+                    c++ ;
+                }
+            }
+            candidates= Arrays.copyOf(cand, c);
+            this.value= value;
+            this.budget= budget;
+            taboo= new boolean[K];
+        }
+
+        /** Insert stops into t greedily, then shorten t by local search and use the steps <br>
+         * saved to insert more stops, until neither helps. */
+        private void improve(Tour t) {
+            do {
+                fill(t);
+            } while (twoOpt(t) | orOpt(t));
+        }
+
+        /** Take a random run of up to PERTURB_MAX stops out of t, refill it and shorten it <br>
+         * without them, and then improve it with them allowed again. <br>
+         * Precondition: t has at least one stop between start and exit. */
+        private void perturb(Tour t, Random rand) {
+            int len= 1 + rand.nextInt(Math.min(PERTURB_MAX, t.n - 2));
+            int i= 1 + rand.nextInt(t.n - 1 - len);
+            for (int k= 0; k < len; k++ ) {
+                taboo[t.stops[i]]= true;
+                remove(t, i);
+            }
+            improve(t);
+            Arrays.fill(taboo, false);
+            improve(t);
+        }
+
+        /** Repeatedly insert into t the candidate with the highest ratio of value to the <br>
+         * steps it adds, at the place where it adds the fewest steps, until no candidate <br>
+         * fits in the budget. Ties go to the candidate found first. */
+        private void fill(Tour t) {
+            while (true) {
+                int best= -1;
+                int bestPos= -1;
+                int bestDelta= 0;
+                double bestRatio= -1;
+                for (int c : candidates) {
+                    if (t.on[c] || taboo[c]) continue;
+                    int[] dc= d[c];
+                    int delta= Integer.MAX_VALUE;
+                    int pos= -1;
+                    for (int i= 0; i < t.n - 1; i++ ) {
+                        int a= t.stops[i];
+                        int b= t.stops[i + 1];
+                        int dd= dc[a] + dc[b] - d[a][b];
+                        if (dd < delta) {
+                            delta= dd;
+                            pos= i + 1;
+                        }
+                    }
+                    if (t.length + delta > budget) continue;
+                    double ratio= value[c] / (delta + 1.0);
+                    if (ratio > bestRatio) {
+                        best= c;
+                        bestPos= pos;
+                        bestDelta= delta;
+                        bestRatio= ratio;
+                    }
+                }
+                if (best < 0) return;
+                insert(t, bestPos, best, bestDelta);
+            }
+        }
+
+        /** Shorten t by reversing parts of it (2-opt) while that helps. <br>
+         * Return true iff t was changed. Distances are symmetric, so only the two <br>
+         * distances at the ends of the reversed part change. */
+        private boolean twoOpt(Tour t) {
+            boolean changed= false;
+            boolean again= true;
+            while (again) {
+                again= false;
+                for (int i= 1; i < t.n - 2; i++ ) {
+                    int a= t.stops[i - 1];
+                    int b= t.stops[i];
+                    for (int j= i + 1; j < t.n - 1; j++ ) {
+                        int c= t.stops[j];
+                        int e= t.stops[j + 1];
+                        int delta= d[a][c] + d[b][e] - d[a][b] - d[c][e];
+                        if (delta < 0) {
+                            reverse(t.stops, i, j);
+                            t.length+= delta;
+                            b= t.stops[i];
+                            again= true;
+                            changed= true;
+                        }
+                    }
+                }
+            }
+            return changed;
+        }
+
+        /** Shorten t by moving runs of 1..OR_OPT_MAX consecutive stops, possibly reversed, <br>
+         * to another place (or-opt) while that helps. Return true iff t was changed. */
+        private boolean orOpt(Tour t) {
+            boolean changed= false;
+            boolean again= true;
+            while (again) {
+                again= false;
+                for (int len= 1; len <= OR_OPT_MAX; len++ ) {
+                    for (int i= 1; i + len < t.n; i++ ) {
+                        if (moveRun(t, i, len)) {
+                            again= true;
+                            changed= true;
+                        }
+                    }
+                }
+            }
+            return changed;
+        }
+
+        /** Move the run t.stops[i..i+len-1] (which does not include the exit), possibly <br>
+         * reversed, to the place where it makes t shortest, if that shortens t. <br>
+         * Return true iff t was changed. */
+        private boolean moveRun(Tour t, int i, int len) {
+            int[] s= t.stops;
+            int first= s[i];
+            int last= s[i + len - 1];
+            int p= s[i - 1];
+            int q= s[i + len];
+            int gain= d[p][first] + d[last][q] - d[p][q];
+            int bestDelta= 0;
+            int bestJ= -1;
+            boolean bestRev= false;
+            for (int j= 0; j < t.n - 1; j++ ) {
+                if (j >= i - 1 && j < i + len) continue;
+                int a= s[j];
+                int b= s[j + 1];
+                int fwd= d[a][first] + d[last][b] - d[a][b] - gain;
+                int rev= d[a][last] + d[first][b] - d[a][b] - gain;
+                if (fwd < bestDelta) {
+                    bestDelta= fwd;
+                    bestJ= j;
+                    bestRev= false;
+                }
+                if (rev < bestDelta) {
+                    bestDelta= rev;
+                    bestJ= j;
+                    bestRev= true;
+                }
+            }
+            if (bestJ < 0) return false;
+
+            int[] run= Arrays.copyOfRange(s, i, i + len);
+            if (bestRev) reverse(run, 0, len - 1);
+            // Close the gap, then open one after the stop that was at bestJ.
+            System.arraycopy(s, i + len, s, i, t.n - i - len);
+            int at= bestJ < i ? bestJ + 1 : bestJ + 1 - len;
+            System.arraycopy(s, at, s, at + len, t.n - len - at);
+            System.arraycopy(run, 0, s, at, len);
+            t.length+= bestDelta;
+            return true;
+        }
+
+        /** Insert key c into t at index pos (0 < pos < t.n), which adds delta to its length. */
+        private void insert(Tour t, int pos, int c, int delta) {
+            if (t.n == t.stops.length) t.stops= Arrays.copyOf(t.stops, 2 * t.n);
+            System.arraycopy(t.stops, pos, t.stops, pos + 1, t.n - pos);
+            t.stops[pos]= c;
+            t.n++ ;
+            t.length+= delta;
+            t.value+= value[c];
+            t.on[c]= true;
+        }
+
+        /** Remove the stop at index i from t (0 < i < t.n - 1). */
+        private void remove(Tour t, int i) {
+            int c= t.stops[i];
+            int a= t.stops[i - 1];
+            int b= t.stops[i + 1];
+            t.length+= d[a][b] - d[a][c] - d[c][b];
+            System.arraycopy(t.stops, i + 1, t.stops, i, t.n - i - 1);
+            t.n-- ;
+            t.value-= value[c];
+            t.on[c]= false;
+        }
+
+        /** Reverse b[i..j]. */
+        private static void reverse(int[] b, int i, int j) {
+            for (; i < j; i++ , j-- ) {
+                int tmp= b[i];
+                b[i]= b[j];
+                b[j]= tmp;
+            }
+        }
+    }
+}
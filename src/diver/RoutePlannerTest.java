@@ -0,0 +1,91 @@
+package diver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.DistanceOracle;
+import graph.DistanceOracleTest.FakeFleeState;
+import graph.Node;
+import graph.SewerPool;
+
+/** JUnit tests for class RoutePlanner. */
+public class RoutePlannerTest {
+
+    /** Extra steps, beyond the shortest way out, given to the flees of the tests */
+    private static final int[] EXTRA= { 0, 10, 100, 1000, 100000 };
+
+    /** Test that, for a few games and several numbers of steps, the route ends at the <br>
+     * exit, visits each coin tile at most once, and is at most stepsToGo long, and that <br>
+     * following it by shortest paths gets McDiver out. */
+    @Test
+    public void testRouteFits() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            for (int extra : EXTRA) {
+                FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), extra);
+                DistanceOracle oracle= DistanceOracle.forFlee(state);
+                List<Node> route= new RoutePlanner(seed).plan(state, oracle);
+
+                assertEquals(state.exit(), route.get(route.size() - 1));
+                Set<Node> seen= new HashSet<>();
+                long length= 0;
+                int from= 0;
+                for (Node n : route) {
+                    assertTrue(seen.add(n));
+                    assertTrue(n.equals(state.exit()) || n.getTile().coins() > 0);
+                    int to= oracle.indexOf(n);
+                    length+= oracle.distance(from, to);
+                    from= to;
+                }
+                assertTrue(length <= state.stepsToGo());
+
+                for (Node n : route) {
+                    state.walk(oracle.path(oracle.indexOf(state.currentNode()), n));
+                }
+                assertEquals(state.exit(), state.currentNode());
+            }
+        }
+    }
+
+    /** Test that the route depends only on the seed and the game, and that with steps <br>
+     * to spare it goes to every coin tile. */
+    @Test
+    public void testDeterministic() {
+        for (long seed= 0; seed < 5; seed++ ) {
+            for (int extra : EXTRA) {
+                FakeFleeState s1= new FakeFleeState(SewerPool.generate(seed), extra);
+                FakeFleeState s2= new FakeFleeState(SewerPool.generate(seed), extra);
+                DistanceOracle oracle= DistanceOracle.forFlee(s1);
+                List<Node> r1= new RoutePlanner(seed).plan(s1, oracle);
+                List<Node> r2= new RoutePlanner(seed).plan(s2, DistanceOracle.forFlee(s2));
+                assertEquals(r1, r2);
+                if (extra == EXTRA[EXTRA.length - 1]) assertEquals(oracle.size() - 1, r1.size());
+            }
+        }
+    }
+
+    /** Test the exceptions: negative rounds, a value array of the wrong size, and an <br>
+     * exit farther than the budget. */
+    @Test
+    public void testExceptions() {
+        assertThrows(IllegalArgumentException.class, () -> new RoutePlanner(0, -1));
+        FakeFleeState state= new FakeFleeState(SewerPool.generate(0), 0);
+        DistanceOracle oracle= DistanceOracle.forFlee(state);
+        int exit= oracle.size() - 1;
+        RoutePlanner planner= new RoutePlanner(0, 0);
+        assertThrows(IllegalArgumentException.class,
+            () -> planner.plan(oracle, 0, exit, new int[oracle.size() + 1], 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> planner.plan(oracle, 0, exit, new int[oracle.size()],
+                oracle.distance(0, exit) - 1));
+        int[] route= planner.plan(oracle, 0, exit, new int[oracle.size()],
+            oracle.distance(0, exit));
+        assertEquals(2, route.length);
+    }
+}
@@ -0,0 +1,170 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/** An instance collects the events of a game and passes them on to another listener<br>
+ * (e.g. the GUI) in batches, a fixed number of times per second, on its own thread.<br>
+ * So the game never waits for the target, which may animate at its own pace.
+ *
+ * Every phase change, move and error is delivered, in the order they happened: the<br>
+ * target may animate McDiver from tile to tile, so it must see each move. Only coin<br>
+ * pickups are coalesced: since each carries McDiver's total coins and score, a pickup<br>
+ * followed by another in the same batch, with no phase change or error between them,<br>
+ * is not delivered. */
+public final class BatchingEventListener implements GameEventListener {
+
+	/** The kinds of events */
+	private enum Kind {
+		PHASE_STARTED, PHASE_ENDED, MOVED, COINS, ERROR;
+	}
+
+	/** An instance is one recorded event. Fields that don't apply to its kind are unused. */
+	private static final class Event {
+		final Kind kind;
+		GameState.Phase phase;
+		Sewers sewer;
+		Node node;
+		int steps, coins, score;
+		double bonus;
+		boolean succeeded;
+		String message;
+
+		/** Constructor: an event of kind k. */
+		Event(Kind k) {
+			kind= k;
+		}
+	}
+
+	/** The listener that the batches are delivered to */
+	private final GameEventListener target;
+
+	/** Events recorded but not yet delivered, in the order they happened */
+	private final Queue<Event> pending= new ConcurrentLinkedQueue<>();
+
+	/** The thread that delivers the batches */
+	private final ScheduledExecutorService deliverer;
+
+	/** Constructor: a listener that delivers events to target framesPerSecond times <br>
+	 * per second. */
+	public BatchingEventListener(GameEventListener target, int framesPerSecond) {
+		if (framesPerSecond < 1) throw new IllegalArgumentException("framesPerSecond < 1");
+		this.target= target;
+		deliverer= Executors.newSingleThreadScheduledExecutor((r) -> {
+			Thread t= new Thread(r, "GameEvent delivery");
+			t.setDaemon(true);
+			return t;
+		});
+		long period= TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+		deliverer.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void phaseStarted(GameState.Phase phase, Sewers sewer, Node start, int stepsToGo) {
+		Event e= new Event(Kind.PHASE_STARTED);
+		e.phase= phase;
+		e.sewer= sewer;
+		e.node= start;
+		e.steps= stepsToGo;
+		pending.add(e);
+	}
+
+	@Override
+	public void phaseEnded(GameState.Phase phase, boolean succeeded) {
+		Event e= new Event(Kind.PHASE_ENDED);
+		e.phase= phase;
+		e.succeeded= succeeded;
+		pending.add(e);
+	}
+
+	@Override
+	public void moved(GameState.Phase phase, Node n, int stepsToGo, double bonus) {
+		Event e= new Event(Kind.MOVED);
+		e.phase= phase;
+		e.node= n;
+		e.steps= stepsToGo;
+		e.bonus= bonus;
+		pending.add(e);
+	}
+
+	@Override
+	public void coinsCollected(int coins, int score) {
+		Event e= new Event(Kind.COINS);
+		e.coins= coins;
+		e.score= score;
+		pending.add(e);
+	}
+
+	@Override
+	public void error(String message) {
+		Event e= new Event(Kind.ERROR);
+		e.message= message;
+		pending.add(e);
+	}
+
+	/** Deliver the events recorded so far to the target, coalescing them as described <br>
+	 * in the class specification. Called on the delivery thread. */
+	/* package */ synchronized void flush() {
+		List<Event> batch= new ArrayList<>();
+		for (Event e= pending.poll(); e != null; e= pending.poll()) {
+			batch.add(e);
+		}
+
+		// Mark the pickups that a later pickup of the batch makes redundant.
+		boolean[] redundant= new boolean[batch.size()];
+		boolean later= false;
+		for (int i= batch.size() - 1; i >= 0; i-- ) {
+			Kind k= batch.get(i).kind;
+			if (k == Kind.COINS) {
+				redundant[i]= later;
+				later= true;
+			} else if (k != Kind.MOVED) {
+				later= false;
+			}
+		}
+		for (int i= 0; i < batch.size(); i++ ) {
+			if (!redundant[i]) deliver(batch.get(i));
+		}
+	}
+
+	/** Deliver e to the target. */
+	private void deliver(Event e) {
+		switch (e.kind) {
+		case PHASE_STARTED:
+			target.phaseStarted(e.phase, e.sewer, e.node, e.steps);
+			break;
+		case PHASE_ENDED:
+			target.phaseEnded(e.phase, e.succeeded);
+			break;
+		case MOVED:
+			target.moved(e.phase, e.node, e.steps, e.bonus);
+			break;
+		case COINS:
+			target.coinsCollected(e.coins, e.score);
+			break;
+		case ERROR:
+			target.error(e.message);
+			break;
+		default:
+			throw new IllegalStateException("Unexpected event kind!");
+		}
+	}
+
+	/** Stop delivering batches, after delivering the events recorded so far. <br>
+	 * GameState calls this when its game ends, so that the delivery thread stops. */
+	@Override
+	public void close() {
+		deliverer.shutdown();
+		try {
+			deliverer.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+}
@@ -0,0 +1,178 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An instance is a monotone min-priority queue of distinct int values v, all with v >= 0, <br>
+ * with nonnegative int priorities, for Dijkstra's algorithm on a graph whose edge <br>
+ * lengths are in 0..maxStep for a small maxStep (Dial's algorithm).
+ *
+ * "Monotone" means that a priority given to a value (by insert or changePriority) is <br>
+ * never less than the priority of the last value polled (0 if none has been polled <br>
+ * since the queue was created or cleared), nor more than that priority plus maxStep. <br>
+ * Dijkstra's algorithm satisfies this: every priority it gives is the distance <br>
+ * of the node just polled plus the length of one edge. So maxStep + 1 buckets, <br>
+ * used circularly, are enough: the value v with priority p is in bucket p % (maxStep+1). <br>
+ * insert and changePriority take constant time, and poll takes time at most <br>
+ * proportional to maxStep. Like IndexedIntHeap, no operation allocates an object, <br>
+ * except when the arrays indexed by value have to grow. */
+public final class BucketQueue implements IndexedIntQueue {
+
+	/** Maximum edge length for which Dijkstra's algorithm should use a BucketQueue <br>
+	 * instead of a heap. For longer edges, polls spend too long skipping empty buckets. */
+	public static final int MAX_SMALL_WEIGHT= 255;
+
+	/** Value of pri[v] if v is not in the queue; marks the end of a bucket's list */
+	private static final int NONE= -1;
+
+	/** Class Invariant: <br>
+	 * 1. The values in the queue are those v with v < pri.length and pri[v] != NONE; <br>
+	 * pri[v] is v's priority, and size is the number of values in the queue. <br>
+	 * 2. Each value v in the queue is in the doubly linked list of bucket <br>
+	 * pri[v] % head.length: head[b] is the first value of bucket b (NONE if it is <br>
+	 * empty), and next[v] and prev[v] are the values after and before v (NONE at the ends). <br>
+	 * 3. head.length = maxStep + 1, and cur <= pri[v] <= cur + maxStep for every value v <br>
+	 * in the queue. cur is 0 if no value has been polled since the queue was created or <br>
+	 * cleared; otherwise, it is at least the priority of the last value polled. */
+	private final int maxStep;
+	private final int[] head;
+	private int[] pri;
+	private int[] next;
+	private int[] prev;
+	private int size;
+	private int cur;
+
+	/** Constructor: an empty queue with room for values 0..n-1 (it grows if necessary), <br>
+	 * whose priorities, while it is not empty, span at most maxStep. <br>
+	 * Throw an IllegalArgumentException if maxStep < 0. */
+	public BucketQueue(int n, int maxStep) {
+		if (maxStep < 0) throw new IllegalArgumentException("maxStep < 0");
+		this.maxStep= maxStep;
+		head= new int[maxStep + 1];
+		Arrays.fill(head, NONE);
+		n= Math.max(n, 1);
+		pri= new int[n];
+		next= new int[n];
+		prev= new int[n];
+		Arrays.fill(pri, NONE);
+	}
+
+	/** Return the size of this queue. This operation takes constant time. */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff v is in this queue. */
+	@Override
+	public boolean contains(int v) {
+		return 0 <= v && v < pri.length && pri[v] != NONE;
+	}
+
+	/** Return the priority of v. <br>
+	 * Throw an IllegalArgumentException if v is not in the queue. */
+	public int priority(int v) {
+		if (!contains(v)) throw new IllegalArgumentException();
+		return pri[v];
+	}
+
+	/** Remove all values from this queue. Its time is proportional to maxStep <br>
+	 * plus the size of the queue. */
+	@Override
+	public void clear() {
+		for (int b= 0; b < head.length; b++ ) {
+			for (int v= head[b]; v != NONE; v= next[v]) {
+				pri[v]= NONE;
+			}
+			head[b]= NONE;
+		}
+		size= 0;
+		cur= 0;
+	}
+
+	/** Insert v with priority p to the queue. <br>
+	 * Throw an IllegalArgumentException if v < 0, if v is already in the queue, or if <br>
+	 * p is not in cur..cur+maxStep, where cur is the priority of the last value polled. */
+	@Override
+	public void insert(int v, int p) {
+		if (v < 0 || contains(v)) throw new IllegalArgumentException();
+		checkRange(p);
+		if (v >= pri.length) {
+			int old= pri.length;
+			int n= Math.max(v + 1, 2 * old);
+			pri= Arrays.copyOf(pri, n);
+			next= Arrays.copyOf(next, n);
+			prev= Arrays.copyOf(prev, n);
+			Arrays.fill(pri, old, n, NONE);
+		}
+		link(v, p);
+		size++ ;
+	}
+
+	/** Return a value with lowest priority, without changing the queue. <br>
+	 * Throw a NoSuchElementException if the queue is empty. */
+	public int peek() {
+		if (size == 0) throw new NoSuchElementException();
+		advance();
+		return head[cur % head.length];
+	}
+
+	/** Remove and return a value with lowest priority. Of several such values, the one <br>
+	 * given its priority last is returned first. <br>
+	 * Throw a NoSuchElementException if the queue is empty. */
+	@Override
+	public int poll() {
+		int v= peek();
+		unlink(v);
+		pri[v]= NONE;
+		size-- ;
+		return v;
+	}
+
+	/** Change the priority of value v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the queue or p is not in <br>
+	 * cur..cur+maxStep, where cur is the priority of the last value polled. */
+	@Override
+	public void changePriority(int v, int p) {
+		if (!contains(v)) throw new IllegalArgumentException();
+		checkRange(p);
+		unlink(v);
+		link(v, p);
+	}
+
+	/** Throw an IllegalArgumentException if p is not in cur..cur+maxStep. */
+	private void checkRange(int p) {
+		if (p < cur || p - cur > maxStep) {
+			throw new IllegalArgumentException("Priority " + p + " not in " + cur + ".." +
+				(cur + maxStep));
+		}
+	}
+
+	/** Increase cur to the lowest priority in the queue. <br>
+	 * Precondition: the queue is not empty. */
+	private void advance() {
+		while (head[cur % head.length] == NONE) {
+			cur++ ;
+		}
+	}
+
+	/** Give v priority p and put v at the front of bucket p's list. */
+	private void link(int v, int p) {
+		int b= p % head.length;
+		pri[v]= p;
+		prev[v]= NONE;
+		next[v]= head[b];
+		if (head[b] != NONE) prev[head[b]]= v;
+		head[b]= v;
+	}
+
+	/** Remove v from the list of its bucket. */
+	private void unlink(int v) {
+		if (prev[v] == NONE) {
+			head[pri[v] % head.length]= next[v];
+		} else {
+			next[prev[v]]= next[v];
+		}
+		if (next[v] != NONE) prev[next[v]]= prev[v];
+	}
+}
@@ -0,0 +1,145 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** JUnit tests for class BucketQueue. */
+public class BucketQueueTest {
+
+	/** Run Dijkstra's algorithm from node 0 of the graph with n nodes whose edges are <br>
+	 * u -> to[u][j] with length len[u][j], using q as the frontier set, and return <br>
+	 * the distances (Integer.MAX_VALUE for unreachable nodes). */
+	private static int[] dijkstra(int n, int[][] to, int[][] len, IndexedIntQueue q) {
+		int[] d= new int[n];
+		Arrays.fill(d, Integer.MAX_VALUE);
+		d[0]= 0;
+		q.insert(0, 0);
+		while (q.size() > 0) {
+			int f= q.poll();
+			for (int j= 0; j < to[f].length; j++ ) {
+				int w= to[f][j];
+				int wDistNew= d[f] + len[f][j];
+				if (d[w] == Integer.MAX_VALUE) {
+					d[w]= wDistNew;
+					q.insert(w, wDistNew);
+				} else if (wDistNew < d[w]) {
+					d[w]= wDistNew;
+					q.changePriority(w, wDistNew);
+				}
+			}
+		}
+		return d;
+	}
+
+	/** Test that Dijkstra's algorithm with a BucketQueue gives the same distances as <br>
+	 * with an IndexedIntHeap on long random paths with edges up to MAX_SMALL_WEIGHT, <br>
+	 * so that the priorities wrap around the buckets many times. */
+	@Test
+	public void testWraparound() {
+		Random rand= new Random(3);
+		int n= 2000;
+		int[][] to= new int[n][];
+		int[][] len= new int[n][];
+		for (int u= 0; u < n; u++ ) {
+			// a path 0, 1, 2, ... with short shortcuts, so distances grow far beyond
+			// the number of buckets
+			int k= u + 1 < n ? 1 + rand.nextInt(3) : 0;
+			to[u]= new int[k];
+			len[u]= new int[k];
+			for (int j= 0; j < k; j++ ) {
+				to[u][j]= Math.min(u + 1 + rand.nextInt(4), n - 1);
+				len[u][j]= rand.nextInt(BucketQueue.MAX_SMALL_WEIGHT + 1);
+			}
+		}
+		int[] expected= dijkstra(n, to, len, new IndexedIntHeap(n, true));
+		int[] actual= dijkstra(n, to, len, new BucketQueue(4, BucketQueue.MAX_SMALL_WEIGHT));
+		assertTrue(expected[n - 1] > 10 * (BucketQueue.MAX_SMALL_WEIGHT + 1));
+		assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+	}
+
+	/** Test that a value whose priority was changed is polled once, at its new <br>
+	 * priority, and not again from the bucket of its old priority. */
+	@Test
+	public void testChangePriority() {
+		BucketQueue q= new BucketQueue(8, 10);
+		q.insert(1, 8);
+		q.insert(2, 5);
+		q.insert(3, 9);
+		q.changePriority(1, 2); // out of bucket 8, into bucket 2
+		q.changePriority(3, 10);
+		q.changePriority(2, 7);
+		assertEquals(1, q.peek());
+		assertEquals(1, q.poll());
+		assertEquals(7, q.priority(2));
+		assertEquals(2, q.poll());
+		assertEquals(3, q.poll());
+		assertEquals(0, q.size());
+		assertThrows(NoSuchElementException.class, () -> q.poll());
+
+		// cur is now 10: buckets 0..10 hold priorities 11..20 next
+		q.insert(4, 20);
+		q.insert(5, 11);
+		q.changePriority(4, 12);
+		q.changePriority(5, 19);
+		assertEquals(4, q.poll());
+		assertEquals(5, q.poll());
+		assertFalse(q.contains(4));
+		assertFalse(q.contains(5));
+	}
+
+	/** Test that polled values can be inserted again, and that clear empties the queue <br>
+	 * and starts its priorities again at 0. */
+	@Test
+	public void testReinsertAndClear() {
+		BucketQueue q= new BucketQueue(1, 3);
+		q.insert(0, 0);
+		q.insert(7, 2); // grows the arrays
+		assertEquals(0, q.poll());
+		q.insert(0, 3);
+		assertTrue(q.contains(0));
+		assertEquals(7, q.poll());
+		assertEquals(0, q.poll());
+
+		q.insert(1, 5);
+		q.insert(2, 6);
+		q.clear();
+		assertEquals(0, q.size());
+		assertFalse(q.contains(1));
+		assertFalse(q.contains(2));
+		q.insert(2, 0); // 0 is in range again after clear
+		q.insert(1, 3);
+		assertEquals(2, q.poll());
+		assertEquals(1, q.poll());
+	}
+
+	/** Test the exceptions. */
+	@Test
+	public void testExceptions() {
+		assertThrows(IllegalArgumentException.class, () -> new BucketQueue(4, -1));
+		BucketQueue q= new BucketQueue(4, 5);
+		assertThrows(NoSuchElementException.class, () -> q.peek());
+		assertThrows(NoSuchElementException.class, () -> q.poll());
+		assertThrows(IllegalArgumentException.class, () -> q.insert(-1, 0));
+		assertThrows(IllegalArgumentException.class, () -> q.insert(0, 6));
+		q.insert(0, 3);
+		assertThrows(IllegalArgumentException.class, () -> q.insert(0, 4));
+		assertThrows(IllegalArgumentException.class, () -> q.changePriority(1, 4));
+		assertThrows(IllegalArgumentException.class, () -> q.priority(1));
+		q.insert(1, 4);
+		assertEquals(0, q.poll()); // cur is now 3
+		assertThrows(IllegalArgumentException.class, () -> q.insert(2, 2));
+		assertThrows(IllegalArgumentException.class, () -> q.insert(2, 9));
+		assertThrows(IllegalArgumentException.class, () -> q.changePriority(1, 2));
+		assertThrows(IllegalArgumentException.class, () -> q.changePriority(1, 9));
+		q.insert(2, 8);
+		assertEquals(4, q.priority(1));
+	}
+}
@@ -0,0 +1,608 @@
+package graph;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/** An instance is a sewer system like a Sewers, but stored in a few bytes per tile, <br>
+ * so that it can be very large.
+ *
+ * A tile is known by its dense index row*cols + col, which is also the id of its node. <br>
+ * Nothing is kept for a tile but its type (a byte), its coins (a short; coins are at <br>
+ * most Sewers.TASTY_VALUE) and the lengths of its four edges, one per 4 bits of a short <br>
+ * (a length is at most Sewers.MAX_EDGE_WEIGHT; 0 means no edge). A Sewers, instead, has <br>
+ * a Node, a Tile and two sets for every tile, walls included. So 10,000 by 10,000 <br>
+ * tiles take 300 MB for a find sewer, which has no coins, and 500 MB for a flee sewer. <br>
+ * Generating and minPathLength also need an int per tile of scratch space (400 MB at <br>
+ * that size), which is kept for the next call until releaseScratch(). A LargeGame of <br>
+ * that size, which holds both sewers and generates the flee sewer while the find <br>
+ * sewer is alive, needs a heap of about 1.5 GB (it fails with -Xmx1400m).
+ *
+ * Methods node(k) and nodes() create Node and Tile objects on demand, as flyweights <br>
+ * backed by the arrays: two calls for the same tile give equal Nodes (equality is by <br>
+ * id), and coins taken through one are gone from the other. A flyweight's exits are <br>
+ * created the first time they are asked for. So code written for a Sewers graph, like <br>
+ * a SewerDiver's flee(), runs on a CompactSewers too, as long as it does not keep an <br>
+ * object per node of a large graph.
+ *
+ * The generators use rand exactly as those of Sewers do, so for the same sizes and <br>
+ * the same Random they give the same sewer system; toSewers() converts a small one. */
+public final class CompactSewers {
+
+	/** The tile types, by ordinal; a tile's type is types[ordinal] */
+	private static final Tile.TileType[] TYPES= Tile.TileType.values();
+
+	/** The ordinals of the tile types, as stored */
+	private static final byte FLOOR= (byte) Tile.TileType.FLOOR.ordinal();
+	private static final byte RING= (byte) Tile.TileType.RING.ordinal();
+	private static final byte ENTRANCE= (byte) Tile.TileType.ENTRANCE.ordinal();
+	private static final byte WALL= (byte) Tile.TileType.WALL.ordinal();
+
+	/** The row and column offsets of directions NORTH, EAST, SOUTH, WEST of <br>
+	 * Sewers.Direction, in that order. The length of the edge of a tile in direction d <br>
+	 * is in bits 4d..4d+3 of its short in weights. */
+	private static final int[] DROW= { -1, 0, 1, 0 };
+	private static final int[] DCOL= { 0, 1, 0, -1 };
+
+	/** The directions in the order in which a Node of a Sewers has its exits: an edge is <br>
+	 * added to both its nodes when the northern or western one is reached in row-major <br>
+	 * order, which gives north, west, south, east. */
+	/* package */ static final int[] EXIT_ORDER= { 0, 3, 2, 1 };
+
+	/** The largest number of tiles: the arrays are indexed by int */
+	public static final int MAX_TILES= Integer.MAX_VALUE - 8;
+
+	/** Number of rows and columns */
+	private final int rows, cols;
+
+	/** The type (ordinal) of each tile */
+	private final byte[] types;
+
+	/** The coins on each tile. A tile whose coins were taken holds ~(its original coins), <br>
+	 * a negative number. null if no tile has coins. */
+	private short[] coins;
+
+	/** The lengths of the edges of each tile, 4 bits per direction */
+	private final short[] weights;
+
+	/** The indexes of the entrance and of the ring (the entrance itself in a flee sewer), <br>
+	 * and the number of open tiles */
+	private int entrance, ring, openTiles;
+
+	/** One int per tile of scratch space, for the frontier queue of generateGraph and <br>
+	 * then the distances of each minPathLength: allocated when first needed, and kept <br>
+	 * until releaseScratch() (null if it has not been allocated or has been released) */
+	private int[] scratch;
+
+	/** Return a new random sewer system with r rows, c columns, and no coins, all edges <br>
+	 * of length 1, and a ring a reasonable distance from the exit: the sewer system <br>
+	 * Sewers.digExploreSewer(r, c, rand) would give. <br>
+	 * Throw an IllegalArgumentException if r * c > MAX_TILES. */
+	public static CompactSewers digExploreSewer(int r, int c, Random rand) {
+		int minRingDist= Sewers.minRingDistance(r, c);
+
+		CompactSewers sewers= new CompactSewers(r, c, rand, () -> 1, () -> 0, RING);
+		while (sewers.minPathLength(sewers.entrance, sewers.ring) < minRingDist) {
+			sewers= null; // Let it be collected while the next one is generated.
+			sewers= new CompactSewers(r, c, rand, () -> 1, () -> 0, RING);
+		}
+		return sewers;
+	}
+
+	/** Return a new random sewer system with r rows, c columns, and random coins and <br>
+	 * edge lengths, with (currentRow, currentCol) an open floor tile: the sewer system <br>
+	 * Sewers.digGetOutSewer(r, c, currentRow, currentCol, rand) would give. <br>
+	 * Throw an IllegalArgumentException if r * c > MAX_TILES. */
+	public static CompactSewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
+		Random rand) {
+		IntSupplier edgeWeightGen= () -> rand.nextInt(Sewers.MAX_EDGE_WEIGHT) + 1;
+		IntSupplier coinGen= () -> Sewers.randomCoinValue(rand);
+		CompactSewers potentialCavern= new CompactSewers(r, c, rand, edgeWeightGen, coinGen,
+			ENTRANCE);
+		int k= currentRow * c + currentCol;
+		while (potentialCavern.types[k] != FLOOR) {
+			potentialCavern= null; // Let it be collected while the next one is generated.
+			potentialCavern= new CompactSewers(r, c, rand, edgeWeightGen, coinGen, ENTRANCE);
+		}
+		return potentialCavern;
+	}
+
+	/** Constructor: a new sewer system of size (rws, cls), generated as a Sewers is <br>
+	 * generated, with the same calls on rand, edgeWeightGenerator and coinGenerator in <br>
+	 * the same order. Precondition: target is RING or ENTRANCE. */
+	private CompactSewers(int rws, int cls, Random rand,
+		IntSupplier edgeWeightGenerator,
+		IntSupplier coinGenerator,
+		byte target) {
+		if ((long) rws * cls > MAX_TILES) {
+			throw new IllegalArgumentException(rws + " x " + cls + " is too large");
+		}
+		rows= rws;
+		cols= cls;
+		types= new byte[rows * cols];
+		Arrays.fill(types, WALL);
+		weights= new short[rows * cols];
+
+		generateGraph(rand, target, coinGenerator);
+		createEdges(edgeWeightGenerator);
+	}
+
+	/** Open tiles as Sewers.generateGraph does (see it for the walk), storing their <br>
+	 * types and coins, and set entrance, ring and openTiles. The frontier queue, in <br>
+	 * scratch, holds the open tiles in the order they were opened, which is the order <br>
+	 * of the list from which Sewers picks the ring. */
+	private void generateGraph(Random rand, byte target, IntSupplier coinGenerator) {
+		BitSet seen= new BitSet(rows * cols);
+		int[] frontier= scratch();
+		int head= 0;
+		int tail= 0;
+		int[] newExits= new int[DROW.length];
+
+		entrance= entrancePoint(rand);
+		types[entrance]= ENTRANCE;
+		seen.set(entrance);
+		frontier[tail]= entrance;
+		tail++ ;
+		while (head < tail) {
+			int k= frontier[head];
+			head++ ;
+			int r= k / cols;
+			int c= k % cols;
+
+			int existingExits= 0;
+			int nExits= 0;
+			for (int d= 0; d < DROW.length; d++ ) {
+				int nr= r + DROW[d];
+				int nc= c + DCOL[d];
+				if (isValid(nr, nc)) {
+					int q= nr * cols + nc;
+					if (types[q] != WALL) {
+						existingExits++ ;
+					} else if (!seen.get(q)) {
+						seen.set(q);
+						newExits[nExits]= q;
+						nExits++ ;
+					}
+				}
+			}
+
+			if (nExits > 0) {
+				double modifiedDensity;
+				int forcedExit;
+				if (existingExits < 2) {
+					modifiedDensity= nExits == 1 ? 0.0 :
+						(nExits * Sewers.DENSITY - 1) / (nExits - 1);
+					forcedExit= newExits[rand.nextInt(nExits)];
+				} else {
+					modifiedDensity= Sewers.DENSITY;
+					forcedExit= -1;
+				}
+				for (int x= 0; x < nExits; x++ ) {
+					int q= newExits[x];
+					if (q == forcedExit || rand.nextDouble() < modifiedDensity) {
+						types[q]= FLOOR;
+						setCoins(q, coinGenerator.getAsInt());
+						frontier[tail]= q;
+						tail++ ;
+					}
+				}
+			}
+		}
+
+		openTiles= tail;
+		ring= entrance;
+		if (target != ENTRANCE) {
+			ring= frontier[rand.nextInt(tail - 1) + 1];
+			types[ring]= target;
+		}
+	}
+
+	/** Store v as the coins of tile k, creating coins if v is the first nonzero value. */
+	private void setCoins(int k, int v) {
+		if (v == 0 && coins == null) return;
+		if (v < 0 || v > Short.MAX_VALUE) throw new IllegalArgumentException("coins: " + v);
+		if (coins == null) coins= new short[types.length];
+		coins[k]= (short) v;
+	}
+
+	/** Add edges between adjacent open tiles, with lengths from edgeWeightGenerator, <br>
+	 * visiting tiles and drawing lengths in the order Sewers.createEdges does. */
+	private void createEdges(IntSupplier edgeWeightGenerator) {
+		for (int i= 0; i < rows - 1; i++ ) {
+			for (int j= 0; j < cols - 1; j++ ) {
+				int k= i * cols + j;
+				if (types[k] == WALL) continue;
+
+				// South, then east, as Sewers draws them.
+				addEdge(k, 2, edgeWeightGenerator);
+				addEdge(k, 1, edgeWeightGenerator);
+			}
+		}
+	}
+
+	/** If the neighbor of open tile k in direction d is not a wall, add an edge between <br>
+	 * them, with a length from edgeWeightGenerator. */
+	private void addEdge(int k, int d, IntSupplier edgeWeightGenerator) {
+		int q= k + DROW[d] * cols + DCOL[d];
+		if (types[q] == WALL) return;
+		int w= edgeWeightGenerator.getAsInt();
+		if (w < 1 || w > Sewers.MAX_EDGE_WEIGHT) {
+			throw new IllegalArgumentException("edge length: " + w);
+		}
+		weights[k]|= w << 4 * d;
+		weights[q]|= w << 4 * ((d + 2) % 4);
+	}
+
+	/** Return the index of a randomly chosen entrance (the only non-wall tile along an <br>
+	 * edge of the grid), chosen as Sewers chooses it, using rand. */
+	private int entrancePoint(Random rand) {
+		switch (rand.nextInt(4)) {
+		case 0: // North wall
+			return (rand.nextInt(rows - 2) + 1) * cols;
+		case 1: // South wall
+			return (rand.nextInt(rows - 2) + 1) * cols + cols - 1;
+		case 2: // West wall
+			return rand.nextInt(cols - 2) + 1;
+		case 3: // East wall
+			return (rows - 1) * cols + rand.nextInt(cols - 2) + 1;
+		default:
+			throw new IllegalStateException("Unexpected random value!");
+		}
+	}
+
+	/** Return true iff (row, col) is on the grid, not on its border. */
+	private boolean isValid(int row, int col) {
+		return 0 < row && row < rows - 1 &&
+			0 < col && col < cols - 1;
+	}
+
+	/** Return the number of rows. */
+	public int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the number of open tiles (the size of the graph). */
+	public int numOpenTiles() {
+		return openTiles;
+	}
+
+	/** Return the index of the entrance. */
+	public int entrance() {
+		return entrance;
+	}
+
+	/** Return the index of the ring (in a flee sewer, the entrance, which is the exit). */
+	public int ring() {
+		return ring;
+	}
+
+	/** Return the index of the tile at (r, c). */
+	public int index(int r, int c) {
+		return r * cols + c;
+	}
+
+	/** Return the row of tile k. */
+	public int row(int k) {
+		return k / cols;
+	}
+
+	/** Return the column of tile k. */
+	public int column(int k) {
+		return k % cols;
+	}
+
+	/** Return the type of tile k. */
+	public Tile.TileType type(int k) {
+		return TYPES[types[k]];
+	}
+
+	/** Return true iff tile k is not a wall. */
+	public boolean isOpen(int k) {
+		return types[k] != WALL;
+	}
+
+	/** Return the coins on tile k (0 if they have been taken). */
+	public int coins(int k) {
+		return coins == null ? 0 : Math.max(coins[k], 0);
+	}
+
+	/** Return the coins tile k had before they were taken (if they were). */
+	public int originalCoins(int k) {
+		if (coins == null) return 0;
+		int v= coins[k];
+		return v < 0 ? ~v : v;
+	}
+
+	/** Take the coins of tile k and return how many there were (0 if they had <br>
+	 * already been taken). */
+	public int takeCoins(int k) {
+		int v= coins(k);
+		if (v > 0) coins[k]= (short) ~v;
+		return v;
+	}
+
+	/** Return the number of edges of tile k (0..4). */
+	public int degree(int k) {
+		int n= 0;
+		for (int d= 0; d < DROW.length; d++ ) {
+			if (length(k, d) > 0) n++ ;
+		}
+		return n;
+	}
+
+	/** Return the index of the neighbor of tile k in direction d (0..3 for NORTH, EAST, <br>
+	 * SOUTH, WEST), or -1 if there is no edge that way. */
+	public int neighbor(int k, int d) {
+		return length(k, d) == 0 ? -1 : k + DROW[d] * cols + DCOL[d];
+	}
+
+	/** Return the length of the edge of tile k in direction d (0..3 for NORTH, EAST, <br>
+	 * SOUTH, WEST), or 0 if there is no edge that way. */
+	public int length(int k, int d) {
+		return weights[k] >>> 4 * d & 0xF;
+	}
+
+	/** Return the length of the edge between tiles k and q, or 0 if there is none. */
+	public int lengthBetween(int k, int q) {
+		for (int d= 0; d < DROW.length; d++ ) {
+			if (neighbor(k, d) == q) return length(k, d);
+		}
+		return 0;
+	}
+
+	/** Return an array d indexed by tile: d[k] is the shortest distance from tile src <br>
+	 * to tile k, or SewerCsr.UNREACHABLE if there is no path (e.g. k is a wall). */
+	public int[] distancesFrom(int src) {
+		int[] d= new int[types.length];
+		run(src, -1, d);
+		return d;
+	}
+
+	/** Return the length of a shortest path from tile src to tile dst, or <br>
+	 * SewerCsr.UNREACHABLE if there is none. The search stops when dst is reached. <br>
+	 * It keeps its distances in the scratch space, so only the first call after the <br>
+	 * sewers are generated or releaseScratch() is called allocates an array per tile. <br>
+	 * Calls are serialized. */
+	public synchronized int minPathLength(int src, int dst) {
+		int[] d= scratch();
+		run(src, dst, d);
+		return d[dst];
+	}
+
+	/** Return the scratch space, allocating it if necessary. */
+	private synchronized int[] scratch() {
+		if (scratch == null) scratch= new int[types.length];
+		return scratch;
+	}
+
+	/** Let the scratch space be collected: 4 bytes per tile, more than the sewers <br>
+	 * themselves take. Call this once no more path lengths are needed; if one is, <br>
+	 * the scratch space is allocated again. */
+	public synchronized void releaseScratch() {
+		scratch= null;
+	}
+
+	/** Run Dijkstra's algorithm from src, storing distances in d, and stop as soon as <br>
+	 * dst is settled (dst = -1 means never stop early).
+	 *
+	 * This is Dial's algorithm, but unlike a BucketQueue, whose arrays are indexed by <br>
+	 * value (three ints per tile here), the buckets are lists of the tiles themselves, <br>
+	 * and a tile whose distance decreases is added again rather than moved: an entry <br>
+	 * whose distance is no longer d[tile] is skipped. Edges are 1..MAX_EDGE_WEIGHT long, <br>
+	 * so MAX_EDGE_WEIGHT + 1 buckets, used circularly, hold every entry, and the lists <br>
+	 * only need room for the frontier, which is small next to the grid. */
+	private void run(int src, int dst, int[] d) {
+		Arrays.fill(d, SewerCsr.UNREACHABLE);
+		int[][] bucket= new int[Sewers.MAX_EDGE_WEIGHT + 1][16];
+		int[] size= new int[bucket.length];
+		int entries= 1;
+		d[src]= 0;
+		bucket[0][0]= src;
+		size[0]= 1;
+		for (int cur= 0; entries > 0; cur++ ) {
+			int b= cur % bucket.length;
+			// Entries added now have distances cur+1..cur+MAX_EDGE_WEIGHT: not bucket b.
+			for (int i= 0; i < size[b]; i++ ) {
+				int f= bucket[b][i];
+				if (d[f] != cur) continue;
+				if (f == dst) return;
+				for (int dir= 0; dir < DROW.length; dir++ ) {
+					int len= length(f, dir);
+					if (len == 0) continue;
+					int w= f + DROW[dir] * cols + DCOL[dir];
+					int wDistNew= cur + len;
+					if (wDistNew < d[w]) {
+						d[w]= wDistNew;
+						int c= wDistNew % bucket.length;
+						if (size[c] == bucket[c].length) {
+							bucket[c]= Arrays.copyOf(bucket[c], 2 * size[c]);
+						}
+						bucket[c][size[c]]= w;
+						size[c]++ ;
+						entries++ ;
+					}
+				}
+			}
+			entries-= size[b];
+			size[b]= 0;
+		}
+	}
+
+	/** Return a flyweight Node for open tile k, with id k. <br>
+	 * Throw an IllegalArgumentException if tile k is a wall. */
+	public Node node(int k) {
+		if (types[k] == WALL) throw new IllegalArgumentException("tile " + k + " is a wall");
+		return new TileNode(k);
+	}
+
+	/** Return the index of the tile of n, a node of this sewer system. */
+	public int indexOf(Node n) {
+		return (int) n.getId();
+	}
+
+	/** Return a view of the nodes of the graph, as flyweights created while it is <br>
+	 * iterated over, in order of index. It takes no space. */
+	public Collection<Node> nodes() {
+		return new AbstractCollection<Node>() {
+			@Override
+			public Iterator<Node> iterator() {
+				return new Iterator<Node>() {
+					private int k= advance(0);
+
+					@Override
+					public boolean hasNext() {
+						return k < types.length;
+					}
+
+					@Override
+					public Node next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						Node n= new TileNode(k);
+						k= advance(k + 1);
+						return n;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return openTiles;
+			}
+
+			@Override
+			public boolean contains(Object ob) {
+				if (!(ob instanceof Node)) return false;
+				long id= ((Node) ob).getId();
+				return 0 <= id && id < types.length && types[(int) id] != WALL;
+			}
+		};
+	}
+
+	/** Return the first index at or after k of an open tile (types.length if none). */
+	private int advance(int k) {
+		while (k < types.length && types[k] == WALL) {
+			k++ ;
+		}
+		return k;
+	}
+
+	/** Return this sewer system as a Sewers, with its coins and the same nodes, edges, <br>
+	 * and exit order. This creates the objects a Sewers has for every tile, so it is <br>
+	 * meant for small sewer systems (for the GUI, SewerBinary, and tests). */
+	public Sewers toSewers() {
+		Node[][] tiles= new Node[rows][cols];
+		Set<Node> graph= new HashSet<>();
+		for (int k= 0; k < types.length; k++ ) {
+			Tile t= new Tile(k / cols, k % cols, originalCoins(k), TYPES[types[k]]);
+			if (coins(k) != originalCoins(k)) t.takeCoins();
+			tiles[k / cols][k % cols]= new Node(t, cols);
+			if (types[k] != WALL) graph.add(tiles[k / cols][k % cols]);
+		}
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				Node n= tiles[i][j];
+				for (int d : EXIT_ORDER) {
+					int len= length(i * cols + j, d);
+					if (len > 0) n.addEdge(new Edge(n, tiles[i + DROW[d]][j + DCOL[d]], len));
+				}
+			}
+		}
+		return new Sewers(graph, tiles, tiles[ring / cols][ring % cols]);
+	}
+
+	/** An instance is a Tile whose coins and type are those of a tile of the arrays. */
+	private final class TileView extends Tile {
+		/** The index of the tile */
+		private final int k;
+
+		/** Constructor: a view of tile k. */
+		private TileView(int k) {
+			super(k / cols, k % cols, originalCoins(k), TYPES[types[k]]);
+			this.k= k;
+		}
+
+		@Override
+		public int coins() {
+			return CompactSewers.this.coins(k);
+		}
+
+		@Override
+		public int originalCoinValue() {
+			return originalCoins(k);
+		}
+
+		@Override
+		public TileType type() {
+			return TYPES[types[k]];
+		}
+
+		@Override
+		public int takeCoins() {
+			return CompactSewers.this.takeCoins(k);
+		}
+	}
+
+	/** An instance is a Node for an open tile of the arrays. It keeps no edges: they are <br>
+	 * created, with new flyweights for the neighbors, when first asked for. */
+	private final class TileNode extends Node {
+		/** The index of the tile */
+		private final int k;
+
+		/** The exits and neighbors, in the order of a Sewers node; null until needed */
+		private Set<Edge> exits;
+		private Set<Node> neighbors;
+
+		/** Constructor: the node of open tile k. */
+		private TileNode(int k) {
+			super(k, new TileView(k), false);
+			this.k= k;
+		}
+
+		@Override
+		public Set<Edge> getExits() {
+			if (exits == null) {
+				Set<Edge> es= new LinkedHashSet<>();
+				Set<Node> ns= new LinkedHashSet<>();
+				for (int d : EXIT_ORDER) {
+					int q= neighbor(k, d);
+					if (q >= 0) {
+						Node m= new TileNode(q);
+						es.add(new Edge(this, m, length(k, d)));
+						ns.add(m);
+					}
+				}
+				exits= Collections.unmodifiableSet(es);
+				neighbors= Collections.unmodifiableSet(ns);
+			}
+			return exits;
+		}
+
+		@Override
+		public Set<Node> getNeighbors() {
+			getExits();
+			return neighbors;
+		}
+
+		@Override
+		public Edge getEdge(Node q) {
+			for (Edge e : getExits()) {
+				if (e.destination().equals(q)) { return e; }
+			}
+			throw new IllegalArgumentException("getEdge: Node must be a neighbor of this Node");
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** JUnit tests for class CompactSewers. */
+public class CompactSewersTest {
+
+	/** Return the find and flee sewers, as CompactSewers, with rows rows and cols columns <br>
+	 * generated from rand as a game generates them: the find sewer, then the flee sewer <br>
+	 * with its entrance at the ring of the find sewer. */
+	private static CompactSewers[] generate(int rows, int cols, Random rand) {
+		CompactSewers find= CompactSewers.digExploreSewer(rows, cols, rand);
+		int ring= find.ring();
+		CompactSewers flee= CompactSewers.digGetOutSewer(rows, cols, find.row(ring),
+			find.column(ring), rand);
+		return new CompactSewers[] { find, flee };
+	}
+
+	/** Check that compact, the find and flee sewers given by generate, are e's find and <br>
+	 * flee sewers, and that minPathLength gives the same distances to the ring as <br>
+	 * Sewers.minPathLengthToRing, from the find sewer's entrance and from the tile of <br>
+	 * the flee sewer where the flee phase starts. */
+	private static void checkSame(SewerPool.Entry e, CompactSewers[] compact) {
+		SewerBinaryTest.assertSameSewers(e.find, compact[0].toSewers());
+		SewerBinaryTest.assertSameSewers(e.flee, compact[1].toSewers());
+		assertEquals(e.find.minPathLengthToRing(e.find.entrance()),
+			compact[0].minPathLength(compact[0].entrance(), compact[0].ring()));
+		Tile ring= e.find.ring().getTile();
+		int start= compact[1].index(ring.row(), ring.column());
+		assertEquals(e.flee.minPathLengthToRing(e.flee.nodeAt(ring.row(), ring.column())),
+			compact[1].minPathLength(start, compact[1].ring()));
+	}
+
+	/** Test that, for a few games, the CompactSewers generated from the game's seed are <br>
+	 * the game's sewers. */
+	@Test
+	public void testSameAsGame() {
+		for (long seed= 0; seed < 5; seed++ ) {
+			Random rand= new Random(seed);
+			int[] size= SewerPool.size(rand);
+			checkSame(SewerPool.generate(seed), generate(size[0], size[1], rand));
+		}
+	}
+
+	/** Test that, for sizes beyond those of a game, the sewers are still those that <br>
+	 * Sewers generates. */
+	@Test
+	public void testSameWhenLarge() {
+		int[][] sizes= { { 60, 80 }, { 3, 200 }, { 150, 3 } };
+		for (int i= 0; i < sizes.length; i++ ) {
+			int rows= sizes[i][0];
+			int cols= sizes[i][1];
+			Random rand= new Random(i);
+			Sewers find= Sewers.digExploreSewer(rows, cols, rand);
+			Tile ring= find.ring().getTile();
+			Sewers flee= Sewers.digGetOutSewer(rows, cols, ring.row(), ring.column(), rand);
+			checkSame(new SewerPool.Entry(i, find, flee), generate(rows, cols, new Random(i)));
+		}
+	}
+
+	/** Test that the nodes are the open tiles, with ids their indexes, and that taking <br>
+	 * coins through a node's tile takes them from the sewers. */
+	@Test
+	public void testNodes() {
+		CompactSewers s= generate(20, 30, new Random(4))[1];
+		int open= 0;
+		int coins= 0;
+		for (Node n : s.nodes()) {
+			int k= s.indexOf(n);
+			assertEquals(k, n.getId());
+			assertEquals(n, s.node(k));
+			assertTrue(s.isOpen(k));
+			open++ ;
+			coins+= n.getTile().coins();
+		}
+		assertEquals(s.numOpenTiles(), open);
+		assertEquals(open, s.nodes().size());
+		for (Node n : s.nodes()) {
+			int c= s.coins(s.indexOf(n));
+			assertEquals(c, n.getTile().takeCoins());
+			assertEquals(0, s.coins(s.indexOf(n)));
+			coins-= c;
+		}
+		assertEquals(0, coins);
+	}
+
+	/** Test the exceptions: too many tiles. */
+	@Test
+	public void testExceptions() {
+		assertThrows(IllegalArgumentException.class,
+			() -> CompactSewers.digExploreSewer(CompactSewers.MAX_TILES, 2, new Random(0)));
+	}
+}
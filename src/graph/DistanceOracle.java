@@ -0,0 +1,200 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/** An instance answers shortest-path questions about a fixed set of key nodes of a graph <br>
+ * in constant time: the distance between two keys, or from a key to any node, and <br>
+ * a shortest path between them. It is built by one run of Dijkstra's algorithm per key, <br>
+ * and the runs are done in parallel.
+ *
+ * For the flee phase, forFlee(state) uses as keys McDiver's position, every tile <br>
+ * with coins, and the exit, so that a diver can plan a whole route with a single <br>
+ * table instead of running A6.shortest for every question. The graph never changes <br>
+ * during a flee, so the table stays valid as McDiver moves and picks up coins. */
+public final class DistanceOracle {
+
+	/** Distance to a node that cannot be reached */
+	public static final int UNREACHABLE= Integer.MAX_VALUE;
+
+	/** Value in pred of a node without predecessor: a key itself, or unreachable */
+	private static final int NONE= -1;
+
+	/** The nodes of the graph, numbered 0..n-1, and the number of each node */
+	private final Node[] nodes;
+	private final PositionIndex<Node> number;
+
+	/** The graph in compressed-sparse-row form, as in SewerCsr: the exits of node k <br>
+	 * are targets[offsets[k]..offsets[k+1]-1], with lengths in weights. */
+	private final int[] offsets;
+	private final int[] targets;
+	private final int[] weights;
+
+	/** The keys, the numbers of their nodes, and the number of each key */
+	private final Node[] keys;
+	private final int[] keyNodes;
+	private final PositionIndex<Node> keyIndex;
+
+	/** For key k and node number v: dist[k][v] is the length of a shortest path from <br>
+	 * key k to node v (UNREACHABLE if there is none) and pred[k][v] is the number of <br>
+	 * the node before v on that path (NONE if v is key k or is unreachable). */
+	private final int[][] dist;
+	private final int[][] pred;
+
+	/** Constructor: an oracle for the graph whose nodes are graph, with the <br>
+	 * elements of keys as keys, numbered in the order they have in keys. <br>
+	 * Nodes are compared with equals (by id), so a key may be another object for a node <br>
+	 * of graph, like the flyweights of a CompactSewers, which are created on demand. <br>
+	 * Precondition: every edge of a node in graph goes to a node in graph, and <br>
+	 * edge lengths are not negative. <br>
+	 * Throw an IllegalArgumentException if a key is not in graph or is repeated. */
+	public DistanceOracle(Collection<Node> graph, List<Node> keys) {
+		int n= graph.size();
+		nodes= graph.toArray(new Node[n]);
+		number= new PositionIndex<>(n, false);
+		for (int v= 0; v < n; v++ ) {
+			number.put(nodes[v], v);
+		}
+
+		offsets= new int[n + 1];
+		for (int v= 0; v < n; v++ ) {
+			offsets[v + 1]= offsets[v] + nodes[v].getExits().size();
+		}
+		targets= new int[offsets[n]];
+		weights= new int[offsets[n]];
+		int maxWeight= 0;
+		for (int v= 0; v < n; v++ ) {
+			int e= offsets[v];
+			for (Edge edge : nodes[v].getExits()) {
+				targets[e]= number.get(edge.getOther(nodes[v]));
+				weights[e]= edge.length;
+				maxWeight= Math.max(maxWeight, edge.length);
+				e++ ;
+			}
+		}
+
+		this.keys= keys.toArray(new Node[keys.size()]);
+		keyNodes= new int[this.keys.length];
+		keyIndex= new PositionIndex<>(this.keys.length, false);
+		for (int k= 0; k < this.keys.length; k++ ) {
+			keyNodes[k]= number.get(this.keys[k]);
+			if (keyNodes[k] < 0) throw new IllegalArgumentException("Key not in the graph");
+			if (keyIndex.containsKey(this.keys[k])) {
+				throw new IllegalArgumentException("Key repeated: " + this.keys[k]);
+			}
+			keyIndex.put(this.keys[k], k);
+		}
+
+		dist= new int[this.keys.length][];
+		pred= new int[this.keys.length][];
+		int w= maxWeight;
+		IntStream.range(0, this.keys.length).parallel().forEach((k) -> search(k, w));
+	}
+
+	/** Return an oracle for the flee phase of state: its keys are McDiver's current <br>
+	 * node (key 0), then every other node with coins, in no particular order, then <br>
+	 * the exit (key size()-1), unless it is McDiver's current node. */
+	public static DistanceOracle forFlee(FleeState state) {
+		Node start= state.currentNode();
+		Node exit= state.exit();
+		List<Node> keys= new ArrayList<>();
+		keys.add(start);
+		for (Node n : state.allNodes()) {
+			if (n.getTile().coins() > 0 && !n.equals(start) && !n.equals(exit)) keys.add(n);
+		}
+		if (!exit.equals(start)) keys.add(exit);
+		return new DistanceOracle(state.allNodes(), keys);
+	}
+
+	/** Return the number of keys. */
+	public int size() {
+		return keys.length;
+	}
+
+	/** Return key k. */
+	public Node key(int k) {
+		return keys[k];
+	}
+
+	/** Return the number of key n, or -1 if n is not a key. */
+	public int indexOf(Node n) {
+		return keyIndex.get(n);
+	}
+
+	/** Return the length of a shortest path from key i to key j, <br>
+	 * or UNREACHABLE if there is none. */
+	public int distance(int i, int j) {
+		return dist[i][keyNodes[j]];
+	}
+
+	/** Return the length of a shortest path from key i to node n, <br>
+	 * or UNREACHABLE if there is none. <br>
+	 * Throw an IllegalArgumentException if n is not a node of the graph. */
+	public int distanceTo(int i, Node n) {
+		return dist[i][numberOf(n)];
+	}
+
+	/** Return a shortest path from key i to node n, or NodePath.EMPTY if there is none. <br>
+	 * Its time is linear in the number of nodes on the path. <br>
+	 * Throw an IllegalArgumentException if n is not a node of the graph. */
+	public NodePath path(int i, Node n) {
+		int v= numberOf(n);
+		int[] d= dist[i];
+		int[] p= pred[i];
+		if (d[v] == UNREACHABLE) return NodePath.EMPTY;
+		int len= 1;
+		for (int u= v; p[u] != NONE; u= p[u]) {
+			len++ ;
+		}
+		Node[] pathNodes= new Node[len];
+		int[] pathDist= new int[len];
+		for (int k= len - 1, u= v; k >= 0; k-- , u= p[u]) {
+			pathNodes[k]= nodes[u];
+			pathDist[k]= d[u];
+		}
+		return new NodePath(pathNodes, pathDist);
+	}
+
+	/** Return the number of node n. <br>
+	 * Throw an IllegalArgumentException if n is not a node of the graph. */
+	private int numberOf(Node n) {
+		int v= number.get(n);
+		if (v < 0) throw new IllegalArgumentException("Node not in the graph");
+		return v;
+	}
+
+	/** Run Dijkstra's algorithm from key k over the whole graph, storing the results in <br>
+	 * dist[k] and pred[k]. No edge is longer than maxWeight. Each call uses its own <br>
+	 * frontier, so calls for different keys can run at the same time. */
+	private void search(int k, int maxWeight) {
+		int n= nodes.length;
+		int[] d= new int[n];
+		int[] p= new int[n];
+		Arrays.fill(d, UNREACHABLE);
+		Arrays.fill(p, NONE);
+		IndexedIntQueue frontier= maxWeight <= BucketQueue.MAX_SMALL_WEIGHT ?
+			new BucketQueue(n, maxWeight) : new IndexedIntHeap(n, true);
+
+		int src= keyNodes[k];
+		d[src]= 0;
+		frontier.insert(src, 0);
+		while (frontier.size() > 0) {
+			int f= frontier.poll();
+			for (int e= offsets[f]; e < offsets[f + 1]; e++ ) {
+				int w= targets[e];
+				int wDistNew= d[f] + weights[e];
+				if (wDistNew >= d[w]) continue;
+				boolean found= d[w] != UNREACHABLE;
+				d[w]= wDistNew;
+				p[w]= f;
+				if (found) frontier.changePriority(w, wDistNew);
+				else frontier.insert(w, wDistNew);
+			}
+		}
+		dist[k]= d;
+		pred[k]= p;
+	}
+}
@@ -0,0 +1,165 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import a6.A6;
+
+/** JUnit tests for class DistanceOracle. */
+public class DistanceOracleTest {
+
+	/** An instance is the flee phase of a game without a GameState: McDiver walks <br>
+	 * the flee sewers, picking up coins, and running out of steps throws an <br>
+	 * IllegalStateException. Tests of the flee planners use it too. */
+	public static final class FakeFleeState implements FleeState {
+		private final Sewers sewers;
+		private Node position;
+		private int stepsToGo;
+
+		/** The number of coins picked up so far */
+		public int coins;
+
+		/** Constructor: the flee phase of the game e, with McDiver at the tile of the <br>
+		 * ring of the find sewers, extra steps more than the shortest way out, and <br>
+		 * the coins of that tile picked up. */
+		public FakeFleeState(SewerPool.Entry e, int extra) {
+			sewers= e.flee;
+			Tile ring= e.find.ring().getTile();
+			position= sewers.nodeAt(ring.row(), ring.column());
+			stepsToGo= sewers.minPathLengthToRing(position) + extra;
+			coins= position.getTile().takeCoins();
+		}
+
+		@Override
+		public Node currentNode() {
+			return position;
+		}
+
+		@Override
+		public Node exit() {
+			return sewers.ring();
+		}
+
+		@Override
+		public Collection<Node> allNodes() {
+			return sewers.graph();
+		}
+
+		@Override
+		public void moveTo(Node n) {
+			Edge e= position.getEdge(n);
+			if (stepsToGo < e.length) throw new IllegalStateException("Out of steps");
+			stepsToGo-= e.length;
+			position= n;
+			coins+= n.getTile().takeCoins();
+		}
+
+		@Override
+		public int stepsToGo() {
+			return stepsToGo;
+		}
+
+		/** Walk along path from McDiver's node. */
+		public void walk(NodePath path) {
+			for (int i= 1; i < path.size(); i++ ) {
+				moveTo(path.get(i));
+			}
+		}
+	}
+
+	/** Return the nodes of g, sorted by id, so that tests pick the same ones each run. */
+	private static List<Node> sortedNodes(Collection<Node> g) {
+		List<Node> nodes= new ArrayList<>(g);
+		nodes.sort(Comparator.comparingLong(Node::getId));
+		return nodes;
+	}
+
+	/** Check that path is a path in the graph from start to end whose length is dist, <br>
+	 * with the right distance at each node. */
+	private static void assertPath(Node start, Node end, int dist, NodePath path) {
+		assertEquals(start, path.start());
+		assertEquals(end, path.end());
+		assertEquals(dist, path.weight());
+		assertEquals(0, path.weightTo(0));
+		for (int i= 1; i < path.size(); i++ ) {
+			Edge e= path.get(i - 1).getEdge(path.get(i));
+			assertEquals(path.weightTo(i - 1) + e.length, path.weightTo(i));
+		}
+	}
+
+	/** Test that, for the flee sewers of a few games, the distances and paths from every <br>
+	 * key to random nodes and to the other keys are as long as those of A6.shortest. */
+	@Test
+	public void testMatchesA6() {
+		for (long seed= 0; seed < 5; seed++ ) {
+			FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), 0);
+			DistanceOracle oracle= DistanceOracle.forFlee(state);
+			List<Node> nodes= sortedNodes(state.allNodes());
+			Random rand= new Random(seed);
+			for (int i= 0; i < oracle.size(); i++ ) {
+				Node key= oracle.key(i);
+				for (int k= 0; k < 20; k++ ) {
+					Node n= k % 2 == 0 ? oracle.key(rand.nextInt(oracle.size())) :
+						nodes.get(rand.nextInt(nodes.size()));
+					int dist= A6.pathSum(A6.shortest(key, n));
+					assertEquals(dist, oracle.distanceTo(i, n));
+					assertPath(key, n, dist, oracle.path(i, n));
+					int j= oracle.indexOf(n);
+					if (j >= 0) assertEquals(dist, oracle.distance(i, j));
+				}
+			}
+		}
+	}
+
+	/** Test the keys of forFlee: McDiver's node first, the exit last, and in between <br>
+	 * every other tile with coins, each once. */
+	@Test
+	public void testForFleeKeys() {
+		for (long seed= 0; seed < 5; seed++ ) {
+			FakeFleeState state= new FakeFleeState(SewerPool.generate(seed), 0);
+			DistanceOracle oracle= DistanceOracle.forFlee(state);
+			assertEquals(state.currentNode(), oracle.key(0));
+			assertEquals(state.exit(), oracle.key(oracle.size() - 1));
+			int coinTiles= 0;
+			for (Node n : state.allNodes()) {
+				if (n.getTile().coins() > 0 && !n.equals(state.exit())) {
+					coinTiles++ ;
+					assertTrue(oracle.indexOf(n) > 0);
+					assertEquals(n, oracle.key(oracle.indexOf(n)));
+				}
+			}
+			assertEquals(coinTiles + 2, oracle.size());
+			assertEquals(0, oracle.distance(0, 0));
+			assertEquals(state.stepsToGo(), oracle.distance(0, oracle.size() - 1));
+		}
+	}
+
+	/** Test the exceptions: a key not in the graph, a repeated key, and a node not in <br>
+	 * the graph. */
+	@Test
+	public void testExceptions() {
+		Sewers sewers= SewerPool.generate(0).flee;
+		Collection<Node> g= sewers.graph();
+		Node n= sewers.entrance();
+		Node stranger= new Node(-5, new Tile(0, 0, 0, Tile.TileType.FLOOR));
+		assertThrows(IllegalArgumentException.class,
+			() -> new DistanceOracle(g, List.of(n, stranger)));
+		assertThrows(IllegalArgumentException.class, () -> new DistanceOracle(g, List.of(n, n)));
+		DistanceOracle oracle= new DistanceOracle(g, List.of(n));
+		for (Node m : g) {
+			if (!m.equals(n)) assertEquals(-1, oracle.indexOf(m));
+		}
+		assertEquals(0, oracle.distanceTo(0, n));
+		assertThrows(IllegalArgumentException.class, () -> oracle.distanceTo(0, stranger));
+		assertThrows(IllegalArgumentException.class, () -> oracle.path(0, stranger));
+	}
+}
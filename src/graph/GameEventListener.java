@@ -0,0 +1,31 @@
+package graph;
+
+/** An instance is notified of what happens in a game (a GameState): <br>
+ * phase changes, McDiver's moves, coin pickups, and errors.
+ *
+ * The GUI is one listener; a game with no listener runs headless. <br>
+ * The methods are called on the thread that runs the game, and do nothing by default. */
+public interface GameEventListener extends AutoCloseable {
+
+	/** Phase phase has started in sewer with McDiver at node start and stepsToGo steps<br>
+	 * to get out (0 in the find phase, which has no limit on steps). */
+	default void phaseStarted(GameState.Phase phase, Sewers sewer, Node start, int stepsToGo) {}
+
+	/** Phase phase has ended. succeeded is true iff McDiver returned at the right location. */
+	default void phaseEnded(GameState.Phase phase, boolean succeeded) {}
+
+	/** In phase phase, McDiver moved to node n. After the move, stepsToGo steps are left<br>
+	 * (only meaningful in the flee phase) and the bonus factor is bonus. */
+	default void moved(GameState.Phase phase, Node n, int stepsToGo, double bonus) {}
+
+	/** McDiver picked up coins; he now has coins coins and the score is score. */
+	default void coinsCollected(int coins, int score) {}
+
+	/** Something went wrong; message describes it. */
+	default void error(String message) {}
+
+	/** The game has ended: release what this listener holds (e.g. a thread). <br>
+	 * No event is notified after this call. */
+	@Override
+	default void close() {}
+}
@@ -1,6 +1,8 @@
 package graph;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
@@ -9,11 +11,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -22,12 +24,33 @@ import gui.GUI;
 
 public class GameState implements FindState, FleeState {
 
-	private enum Phase {
+	/** The two phases of a game */
+	public enum Phase {
 		FIND, FLEE;
 	}
 
+	/** Thrown by a flee move that takes more steps than are left. Package-private, <br>
+	 * not private, because LargeGame ends its flee phase with it too. */
 	@SuppressWarnings("serial")
-	private static class OutOfTimeException extends RuntimeException {}
+	/* package */ static class OutOfTimeException extends RuntimeException {}
+
+	/** Thrown by the FindState and FleeState methods when the current phase has used up <br>
+	 * its time or its find-step budget, or has been cancelled. */
+	@SuppressWarnings("serial")
+	public static class PhaseCancelledException extends RuntimeException {
+		/** Constructor: an instance with message msg. */
+		PhaseCancelledException(String msg) {
+			super(msg);
+		}
+	}
+
+	/** Runs the find and flee phases that have a time limit. <br>
+	 * Its threads are daemons and are reused by all games. */
+	private static final ExecutorService PHASE_RUNNER= Executors.newCachedThreadPool((r) -> {
+		Thread t= new Thread(r, "GameState phase");
+		t.setDaemon(true);
+		return t;
+	});
 
 	static boolean shouldPrint= true;
 
@@ -40,23 +63,37 @@ public class GameState implements FindState, FleeState {
 	/** Time-out time for find and flee phases */
 	public static final long FIND_TIMEOUT= 10, FLEE_TIMEOUT= 15;
 
+	/** Milliseconds a phase has to end after its time is up, before it is abandoned */
+	private static final long CANCEL_GRACE_MILLIS= 500;
+
+	/** Value of deadline when the current phase has no time limit */
+	private static final long NO_DEADLINE= Long.MAX_VALUE;
+
 	/** Minimum and maximum bonuses */
 	public static final double MIN_BONUS= 1.0, MAX_BONUS= 1.3;
 
-	/** extra time factor. bigger is nicer - addition to total multiplier */
-	private static final double EXTRA_TIME_FACTOR= 0.3;
+	/** extra time factor. bigger is nicer - addition to total multiplier <br>
+	 * EXTRA_TIME_FACTOR and NO_BONUS_LENGTH are package-private, not private, so that <br>
+	 * LargeGame gives the same flee steps and computes the same score. */
+	/* package */ static final double EXTRA_TIME_FACTOR= 0.3;
 
-	private static final double NO_BONUS_LENGTH= 3;
+	/* package */ static final double NO_BONUS_LENGTH= 3;
 
 	/** The find- and flee- sewers */
 	private final Sewers findSewer, fleeSewer;
 
 	private final SewerDiver sewerDiver;
 
-	private final Optional<GUI> gui;
+	/** Notified of moves, coins, phase changes and errors ---null if the game is headless. <br>
+	 * The GUI, if any, is a listener. Every notification is guarded by a null test, so <br>
+	 * a headless game does no work for them. */
+	private GameEventListener listener;
 
 	private final long seed;
 
+	/** true iff this game prints its progress and errors (initially the value of shouldPrint) */
+	private final boolean print;
+
 	private Node position;
 
 	/** steps taken so far, steps left, and coins collected */
@@ -78,6 +115,21 @@ public class GameState implements FindState, FleeState {
 
 	private int minFindSteps;
 
+	/** System.nanoTime() at which the time of the current phase is up (or NO_DEADLINE) */
+	private volatile long deadline= NO_DEADLINE;
+
+	/** true iff the current phase has been abandoned; all state calls then fail */
+	private volatile boolean cancelled= false;
+
+	/** Maximum number of moves the find phase may make */
+	private long findStepBudget= Long.MAX_VALUE;
+
+	/** Set the maximum number of moves the find phase may make to budget. <br>
+	 * A find phase that tries to make more moves ends as if it had timed out. */
+	/* package */ void setFindStepBudget(long budget) {
+		findStepBudget= budget;
+	}
+
 	/** = "flee succeeded" */
 	public boolean fleeSucceeded() {
 		return fleeSucceeded;
@@ -88,9 +140,13 @@ public class GameState implements FindState, FleeState {
 	 * and simply loads these sewers. */
 	GameState(Path findSewerPath, Path fleeSewerPath, SewerDiver sd)
 		throws IOException {
-		findSewer= Sewers.deserialize(Files.readAllLines(findSewerPath));
+		try (Reader r= Files.newBufferedReader(findSewerPath)) {
+			findSewer= Sewers.deserialize(r);
+		}
 		minFindSteps= findSewer.minPathLengthToRing(findSewer.entrance());
-		fleeSewer= Sewers.deserialize(Files.readAllLines(fleeSewerPath));
+		try (Reader r= Files.newBufferedReader(fleeSewerPath)) {
+			fleeSewer= Sewers.deserialize(r);
+		}
 
 		sewerDiver= sd;
 
@@ -100,9 +156,10 @@ public class GameState implements FindState, FleeState {
 		coinsCollected= 0;
 
 		seed= -1;
+		print= shouldPrint;
 
 		phase= Phase.FIND;
-		gui= Optional.of(new GUI(findSewer, position.getTile().row(),
+		listener= guiListener(new GUI(findSewer, position.getTile().row(),
 			position.getTile().column(), 0, this));
 	}
 
@@ -114,13 +171,25 @@ public class GameState implements FindState, FleeState {
 	/** Constructor: a new game instance using seed seed with or without a GUI, <br>
 	 * and with sewerDiver sd used to solve the game. */
 	/* package */ GameState(long seed, boolean useGui, SewerDiver sd) {
-		Random rand= new Random(seed);
-		int ROWS= rand.nextInt(MAX_ROWS - MIN_ROWS + 1) + MIN_ROWS;
-		int COLS= rand.nextInt(MAX_COLS - MIN_COLS + 1) + MIN_COLS;
-		findSewer= Sewers.digExploreSewer(ROWS, COLS, rand);
+		this(seed, useGui, sd, shouldPrint);
+	}
+
+	/** Constructor: a new game instance using seed seed with or without a GUI, <br>
+	 * and with sewerDiver sd used to solve the game. <br>
+	 * The game prints its progress and errors iff print is true. */
+	/* package */ GameState(long seed, boolean useGui, SewerDiver sd, boolean print) {
+		this(SewerPool.generate(seed), useGui, sd, print);
+	}
+
+	/** Constructor: a new game instance for the sewers of e (e.g. generated ahead of <br>
+	 * time by a SewerPool), with or without a GUI, and with sewerDiver sd used to solve <br>
+	 * the game. It is the same game as the one for seed e.seed. <br>
+	 * The game prints its progress and errors iff print is true. */
+	/* package */ GameState(SewerPool.Entry e, boolean useGui, SewerDiver sd, boolean print) {
+		long seed= e.seed;
+		findSewer= e.find;
 		minFindSteps= findSewer.minPathLengthToRing(findSewer.entrance());
-		Tile ringTile= findSewer.ring().getTile();
-		fleeSewer= Sewers.digGetOutSewer(ROWS, COLS, ringTile.row(), ringTile.column(), rand);
+		fleeSewer= e.flee;
 
 		position= findSewer.entrance();
 		stepsTaken= 0;
@@ -131,15 +200,28 @@ public class GameState implements FindState, FleeState {
 		phase= Phase.FIND;
 
 		this.seed= seed;
+		this.print= print;
 
 		if (useGui) {
-			gui= Optional.of(new GUI(findSewer, position.getTile().row(),
+			listener= guiListener(new GUI(findSewer, position.getTile().row(),
 				position.getTile().column(), seed, this));
 		} else {
-			gui= Optional.empty();
+			listener= null;
 		}
 	}
 
+	/** Return a listener that passes events on to g in batches, at g's frame rate, <br>
+	 * so that the game does not wait for g's animations. */
+	private static GameEventListener guiListener(GUI g) {
+		return new BatchingEventListener(new GuiEventListener(g), GUI.FRAMES_PER_SECOND);
+	}
+
+	/** Add l to the listeners notified of the events of this game (e.g. to record metrics). <br>
+	 * Precondition: The game has not started. */
+	public void addListener(GameEventListener l) {
+		listener= listener == null ? l : new MulticastEventListener(listener, l);
+	}
+
 	/** Run through the game, one step at a time. <br>
 	 * Will run flee() only if find() succeeds. <br>
 	 * Will fail in case of timeout. */
@@ -154,6 +236,7 @@ public class GameState implements FindState, FleeState {
 				fleeStepsLeft= fleeSewer.minPathLengthToRing(position);
 			}
 		}
+		closeListener();
 	}
 
 	/** Run through the game, one step at a time. <br>
@@ -170,6 +253,13 @@ public class GameState implements FindState, FleeState {
 				fleeStepsLeft= fleeSewer.minPathLengthToRing(position);
 			}
 		}
+		closeListener();
+	}
+
+	/** The game has ended: close the listener, if any, after it has been notified of <br>
+	 * every event (a BatchingEventListener stops its delivery thread). */
+	private void closeListener() {
+		if (listener != null) listener.close();
 	}
 
 	/** Run only the find phase. Uses timeout. */
@@ -188,27 +278,50 @@ public class GameState implements FindState, FleeState {
 		}
 	}
 
-	@SuppressWarnings("deprecation")
 	/** Wrap a call find() with the timeout functionality. */
 	private void findWithTimeLimit() {
-		FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-			@Override
-			public Void call() {
-				find();
-				return null;
-			}
-		});
-
-		Thread t= new Thread(ft);
-		t.start();
+		if (runWithDeadline(this::find, FIND_TIMEOUT)) findTimedOut= true;
+	}
+
+	/** Run phase on PHASE_RUNNER, giving it timeout seconds. <br>
+	 * The phase is stopped cooperatively: once the time is up, every FindState or <br>
+	 * FleeState call throws a PhaseCancelledException, which find() and flee() catch. <br>
+	 * If the phase has not ended CANCEL_GRACE_MILLIS after that (e.g. the diver is in <br>
+	 * a loop that makes no calls), it is cancelled, its thread is abandoned, and true <br>
+	 * is returned. Otherwise, false is returned. */
+	private boolean runWithDeadline(Runnable phase, long timeout) {
+		deadline= System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+		Future<?> f= PHASE_RUNNER.submit(phase);
 		try {
-			ft.get(FIND_TIMEOUT, TimeUnit.SECONDS);
+			f.get(TimeUnit.SECONDS.toMillis(timeout) + CANCEL_GRACE_MILLIS,
+				TimeUnit.MILLISECONDS);
+			return false;
 		} catch (TimeoutException e) {
-			t.stop();
-			findTimedOut= true;
-		} catch (InterruptedException | ExecutionException e) {
-			System.err.println("ERROR");
-			// Shouldn't happen
+			cancelled= true;
+			f.cancel(true);
+			return true;
+		} catch (InterruptedException e) {
+			cancelled= true;
+			f.cancel(true);
+			Thread.currentThread().interrupt();
+			return true;
+		} catch (ExecutionException e) {
+			errPrint("ERROR"); // Shouldn't happen: find() and flee() catch everything
+			return false;
+		} finally {
+			deadline= NO_DEADLINE;
+		}
+	}
+
+	/** Throw a PhaseCancelledException if the current phase has been cancelled, <br>
+	 * its thread has been interrupted, or its time is up. */
+	private void checkCancelled() {
+		if (cancelled || Thread.currentThread().isInterrupted()) {
+			throw new PhaseCancelledException("The phase was cancelled.");
+		}
+		long d= deadline;
+		if (d != NO_DEADLINE && System.nanoTime() - d > 0) {
+			throw new PhaseCancelledException("The phase ran out of time.");
 		}
 	}
 
@@ -219,9 +332,7 @@ public class GameState implements FindState, FleeState {
 		findSucceeded= false;
 		position= findSewer.entrance();
 		minFindDistance= findSewer.minPathLengthToRing(position);
-		gui.ifPresent((g) -> g.setLighting(false));
-		gui.ifPresent((g) -> g.updateSewer(findSewer, 0));
-		gui.ifPresent((g) -> g.moveTo(position));
+		if (listener != null) listener.phaseStarted(Phase.FIND, findSewer, position, 0);
 
 		try {
 			sewerDiver.find(this);
@@ -229,42 +340,27 @@ public class GameState implements FindState, FleeState {
 			if (position.equals(findSewer.ring())) {
 				findSucceeded= true;
 			} else {
-				errPrintln("find(...) returned at the wrong location.");
-				gui.ifPresent(
-					(g) -> g.displayError("find(f..) returned at the wrong location."));
+				errPrint("find(...) returned at the wrong location.");
+				if (listener != null) listener.error("find(...) returned at the wrong location.");
 			}
+		} catch (PhaseCancelledException e) {
+			errPrint("find(...) ran out of time.");
+			if (listener != null) listener.error("find(...) ran out of time.");
+			findTimedOut= true;
 		} catch (Throwable t) {
-			if (t instanceof ThreadDeath) return;
-			errPrintln("find(...) threw an exception.");
-			errPrintln("Here is the output.");
-			t.printStackTrace();
-			gui.ifPresent((g) -> g.displayError(
-				"find(...) threw an exception. See the console output."));
+			errPrint("find(...) threw an exception.");
+			errPrint("Here is the output.");
+			if (print) t.printStackTrace();
+			if (listener != null) listener.error(
+				"find(...) threw an exception. See the console output.");
 			findErred= true;
 		}
+		if (listener != null) listener.phaseEnded(Phase.FIND, findSucceeded);
 	}
 
-	@SuppressWarnings("deprecation")
 	/** Wrap a call flee() with the timeout functionality. */
 	private void fleeWithTimeLimit() {
-		FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-			@Override
-			public Void call() {
-				flee();
-				return null;
-			}
-		});
-
-		Thread t= new Thread(ft);
-		t.start();
-		try {
-			ft.get(FLEE_TIMEOUT, TimeUnit.SECONDS);
-		} catch (TimeoutException e) {
-			t.stop();
-			fleeTimedOut= true;
-		} catch (InterruptedException | ExecutionException e) {
-			System.err.println("ERROR"); // Shouldn't happen
-		}
+		if (runWithDeadline(this::flee, FLEE_TIMEOUT)) fleeTimedOut= true;
 	}
 
 	/** Handle the logic for running the sewerDiver's flee() procedure with no timeout. */
@@ -274,9 +370,7 @@ public class GameState implements FindState, FleeState {
 		position= fleeSewer.nodeAt(ringTile.row(), ringTile.column());
 		minFleeDistance= fleeSewer.minPathLengthToRing(position);
 		stepsToGo= computeStepsToFlee();
-		gui.ifPresent((g) -> g.getOptionsPanel().changePhaseLabel("Flee phase"));
-		gui.ifPresent((g) -> g.setLighting(true));
-		gui.ifPresent((g) -> g.updateSewer(fleeSewer, stepsToGo));
+		if (listener != null) listener.phaseStarted(Phase.FLEE, fleeSewer, position, stepsToGo);
 
 		// Pick up coins on start phase (if any)
 		Node cn= currentNode();
@@ -289,37 +383,39 @@ public class GameState implements FindState, FleeState {
 			sewerDiver.flee(this);
 			// Verify that the diver returned at the correct location
 			if (!position.equals(fleeSewer.ring())) {
-				errPrintln("flee(..) returned at the wrong location.");
-				gui.ifPresent((g) -> g
-					.displayError("flee(...) returned at the wrong location."));
+				errPrint("flee(..) returned at the wrong location.");
+				if (listener != null) {
+					listener.error("flee(...) returned at the wrong location.");
+					listener.phaseEnded(Phase.FLEE, false);
+				}
 				return;
 			}
 
 			fleeSucceeded= true;
-			gui.ifPresent((g) -> g.getOptionsPanel().changePhaseLabel("Flee done!"));
-			System.out.println("Flee Succeeded!");
-			// Since the exit has been reached, turn off painting the
-			GUI g= gui.isPresent() ? gui.get() : null;
-			gui.MazePanel mp= g == null ? null : g.getMazePanel();
-			if (mp != null) mp.repaint();
+			outPrint("Flee Succeeded!");
 
 		} catch (OutOfTimeException e) {
-			errPrintln("flee(...) ran out of steps before returning!");
-			gui.ifPresent((g) -> g
-				.displayError("flee(...) ran out of steps before returning!"));
+			errPrint("flee(...) ran out of steps before returning!");
+			if (listener != null) {
+				listener.error("flee(...) ran out of steps before returning!");
+			}
+		} catch (PhaseCancelledException e) {
+			errPrint("flee(...) ran out of time.");
+			if (listener != null) listener.error("flee(...) ran out of time.");
+			fleeTimedOut= true;
 		} catch (Throwable t) {
-			if (t instanceof ThreadDeath) return;
-			errPrintln("flee(...) threw an exception:");
-			t.printStackTrace();
-			gui.ifPresent((g) -> g.displayError(
-				"flee(...) threw an exception. See the console output."));
+			errPrint("flee(...) threw an exception:");
+			if (print) t.printStackTrace();
+			if (listener != null) listener.error(
+				"flee(...) threw an exception. See the console output.");
 			fleeErred= true;
 		}
+		if (listener != null) listener.phaseEnded(Phase.FLEE, fleeSucceeded);
 
-		outPrintln("Coins collected   : " + getCoinsCollected());
+		outPrint("Coins collected   : " + getCoinsCollected());
 		DecimalFormat df= new DecimalFormat("#.##");
-		outPrintln("Bonus multiplier : " + df.format(computeBonusFactor()));
-		outPrintln("Score            : " + getScore());
+		outPrint("Bonus multiplier : " + df.format(computeBonusFactor()));
+		outPrint("Score            : " + getScore());
 	}
 
 	/** Making sure the sewerDiver always has the minimum steps needed to get out, <br>
@@ -350,13 +446,18 @@ public class GameState implements FindState, FleeState {
 		if (phase != Phase.FIND) {
 			throw new IllegalStateException("moveTo(ID) can only be called while fleeing!");
 		}
+		checkCancelled();
+		if (stepsTaken >= findStepBudget) {
+			throw new PhaseCancelledException("The find phase ran out of steps.");
+		}
 
 		for (Node n : position.getNeighbors()) {
 			if (n.getId() == id) {
 				position= n;
 				stepsTaken++ ;
-				gui.ifPresent((g) -> g.updateBonus(computeBonusFactor()));
-				gui.ifPresent((g) -> g.moveTo(n));
+				if (listener != null) {
+					listener.moved(Phase.FIND, n, stepsToGo, computeBonusFactor());
+				}
 				return;
 			}
 		}
@@ -369,6 +470,7 @@ public class GameState implements FindState, FleeState {
 		if (phase != Phase.FIND) {
 			throw new IllegalStateException("getLocation() can be called only while fleeing!");
 		}
+		checkCancelled();
 
 		return position.getId();
 	}
@@ -380,6 +482,7 @@ public class GameState implements FindState, FleeState {
 		if (phase != Phase.FIND) {
 			throw new IllegalStateException("getNeighbors() can be called only while fleeing!");
 		}
+		checkCancelled();
 
 		Collection<NodeStatus> options= new ArrayList<>();
 		for (Node n : position.getNeighbors()) {
@@ -403,6 +506,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException(
 				"distanceToRing() can be called only while fleeing!");
 		}
+		checkCancelled();
 
 		return computeDistanceToRing(position.getTile().row(), position.getTile().column());
 	}
@@ -413,6 +517,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException("getCurrentNode: Error, " +
 				"current Node may not be accessed unless fleeing");
 		}
+		checkCancelled();
 		return position;
 	}
 
@@ -422,6 +527,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException("getEntrance: Error, " +
 				"current Node may not be accessed unless fleeing");
 		}
+		checkCancelled();
 		return fleeSewer.ring();
 	}
 
@@ -431,6 +537,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException("getVertices: Error, " +
 				"Vertices may not be accessed unless fleeing");
 		}
+		checkCancelled();
 		return Collections.unmodifiableSet(fleeSewer.graph());
 	}
 
@@ -443,6 +550,7 @@ public class GameState implements FindState, FleeState {
 		if (phase != Phase.FLEE) {
 			throw new IllegalStateException("Call moveTo(Node) only when fleeing!");
 		}
+		checkCancelled();
 		int distance= position.getEdge(n).length;
 		if (stepsToGo - distance < 0) throw new OutOfTimeException();
 
@@ -450,8 +558,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
 		position= n;
 		stepsToGo-= distance;
-		gui.ifPresent((g) -> g.updateStepsToGo(stepsToGo));
-		gui.ifPresent((g) -> { g.moveTo(n); });
+		if (listener != null) listener.moved(Phase.FLEE, n, stepsToGo, computeBonusFactor());
 		grabCoins();
 	}
 
@@ -463,7 +570,7 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException("Call grabCoins() only when fleeing!");
 		}
 		coinsCollected+= position.getTile().takeCoins();
-		gui.ifPresent((g) -> g.updateCoins(coinsCollected, getScore()));
+		if (listener != null) listener.coinsCollected(coinsCollected, getScore());
 	}
 
 	@Override
@@ -473,9 +580,18 @@ public class GameState implements FindState, FleeState {
 			throw new IllegalStateException(
 				"stepsToGo() can be called only while fleeing!");
 		}
+		checkCancelled();
 		return stepsToGo;
 	}
 
+	/* package */ long getSeed() {
+		return seed;
+	}
+
+	/* package */ int getStepsTaken() {
+		return stepsTaken;
+	}
+
 	/* package */ int getCoinsCollected() {
 		return coinsCollected;
 	}
@@ -569,7 +685,7 @@ public class GameState implements FindState, FleeState {
 
 		int totalScore= 0;
 		for (int i= 0; i < numTimesToRun; i++ ) {
-			totalScore+= runNewGame(seed, false, new McDiver());
+			totalScore+= runNewGame(seed, false, new McDiver(true, seed));
 			if (seed != 0) seed= new Random(seed).nextLong();
 			outPrintln("");
 		}
@@ -577,11 +693,28 @@ public class GameState implements FindState, FleeState {
 		outPrintln("Average score : " + totalScore / numTimesToRun);
 	}
 
+	/** Print s on System.out if this game prints. */
+	private void outPrint(String s) {
+		println(System.out, print, s);
+	}
+
+	/** Print s on System.err if this game prints. */
+	private void errPrint(String s) {
+		println(System.err, print, s);
+	}
+
+	/** Print s on System.out if shouldPrint is true. */
 	static void outPrintln(String s) {
-		if (shouldPrint) System.out.println(s);
+		println(System.out, shouldPrint, s);
 	}
 
+	/** Print s on System.err if shouldPrint is true. */
 	static void errPrintln(String s) {
-		if (shouldPrint) System.err.println(s);
+		println(System.err, shouldPrint, s);
+	}
+
+	/** Print s, followed by a line separator, on out if p is true. */
+	private static void println(PrintStream out, boolean p, String s) {
+		if (p) out.println(s);
 	}
 }
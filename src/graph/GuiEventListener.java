@@ -0,0 +1,59 @@
+package graph;
+
+import gui.GUI;
+import gui.MazePanel;
+
+/** An instance passes the events of a game on to its GUI. */
+/* package */ final class GuiEventListener implements GameEventListener {
+
+	/** The GUI that displays the game */
+	private final GUI gui;
+
+	/** Constructor: a listener that updates g. */
+	GuiEventListener(GUI g) {
+		gui= g;
+	}
+
+	@Override
+	public void phaseStarted(GameState.Phase phase, Sewers sewer, Node start, int stepsToGo) {
+		if (phase == GameState.Phase.FIND) {
+			gui.setLighting(false);
+			gui.updateSewer(sewer, 0);
+			gui.moveTo(start);
+		} else {
+			gui.getOptionsPanel().changePhaseLabel("Flee phase");
+			gui.setLighting(true);
+			gui.updateSewer(sewer, stepsToGo);
+		}
+	}
+
+	@Override
+	public void phaseEnded(GameState.Phase phase, boolean succeeded) {
+		if (phase == GameState.Phase.FLEE && succeeded) {
+			gui.getOptionsPanel().changePhaseLabel("Flee done!");
+			// Since the exit has been reached, repaint the maze once more.
+			MazePanel mp= gui.getMazePanel();
+			if (mp != null) mp.repaint();
+		}
+	}
+
+	@Override
+	public void moved(GameState.Phase phase, Node n, int stepsToGo, double bonus) {
+		if (phase == GameState.Phase.FIND) {
+			gui.updateBonus(bonus);
+		} else {
+			gui.updateStepsToGo(stepsToGo);
+		}
+		gui.moveTo(n);
+	}
+
+	@Override
+	public void coinsCollected(int coins, int score) {
+		gui.updateCoins(coins, score);
+	}
+
+	@Override
+	public void error(String message) {
+		gui.displayError(message);
+	}
+}
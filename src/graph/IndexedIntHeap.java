@@ -0,0 +1,193 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An instance is a max-heap or a min-heap of distinct int values v, all with v >= 0, <br>
+ * with priorities of type double. It has the same contract as heap.Heap, but it is <br>
+ * specialized for values that are small ints, such as the dense indexes of SewerCsr <br>
+ * or the numbers given to nodes in the order Dijkstra's algorithm finds them: <br>
+ * it uses parallel primitive arrays and, instead of a HashMap, an int array indexed <br>
+ * by value that gives each value's position in the heap. So no operation allocates <br>
+ * an object, except when an array has to grow. <br>
+ * A min-heap is an IndexedIntQueue, e.g. the frontier set of Dijkstra's algorithm. */
+public final class IndexedIntHeap implements IndexedIntQueue {
+
+	/** Class Invariant: <br>
+	 * 1. val[0..size-1] represents a complete binary tree. val[0] is the root; <br>
+	 * For k > 0, (k-1)/2 (using int division) is the index of the parent of val[k]. <br>
+	 * For k >= 0, 2k+1 and 2k+2 are the indexes of the children of val[k].
+	 *
+	 * 2. For k in 0..size-1, pri[k] is the priority of value val[k].
+	 *
+	 * 3. The values in val[0..size-1] are all different.
+	 *
+	 * 4. For k in 1..size-1, <br>
+	 * .. if isMinHeap, pri[k] >= (the priority of val[k]'s parent), <br>
+	 * .. if !isMinHeap, pri[k] <= (the priority of val[k]'s parent).
+	 *
+	 * 5. For every value v >= 0: if v is in val[0..size-1], val[pos[v]] = v; otherwise, <br>
+	 * v >= pos.length or pos[v] = -1. */
+	private final boolean isMinHeap;
+	private int[] val;
+	private double[] pri;
+	private int[] pos;
+	private int size;
+
+	/** Constructor: an empty heap with room for values 0..n-1 (it grows if necessary). <br>
+	 * It is a min-heap if isMin is true and a max-heap if isMin is false. */
+	public IndexedIntHeap(int n, boolean isMin) {
+		isMinHeap= isMin;
+		n= Math.max(n, 1);
+		val= new int[n];
+		pri= new double[n];
+		pos= new int[n];
+		Arrays.fill(pos, -1);
+	}
+
+	/** Return the size of this heap. This operation takes constant time. */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff v is in this heap. */
+	@Override
+	public boolean contains(int v) {
+		return 0 <= v && v < pos.length && pos[v] >= 0;
+	}
+
+	/** Return the priority of v. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	public double priority(int v) {
+		if (!contains(v)) throw new IllegalArgumentException();
+		return pri[pos[v]];
+	}
+
+	/** Remove all values from this heap. Its time is proportional to its size. */
+	@Override
+	public void clear() {
+		for (int k= 0; k < size; k++ ) {
+			pos[val[k]]= -1;
+		}
+		size= 0;
+	}
+
+	/** Insert v with priority p to the heap. <br>
+	 * Throw an IllegalArgumentException if v < 0 or v is already in the heap. <br>
+	 * The worst-case time is logarithmic in the size of the heap, except when <br>
+	 * the arrays have to grow. */
+	public void insert(int v, double p) {
+		if (v < 0 || contains(v)) throw new IllegalArgumentException();
+		if (v >= pos.length) {
+			int old= pos.length;
+			pos= Arrays.copyOf(pos, Math.max(v + 1, 2 * old));
+			Arrays.fill(pos, old, pos.length, -1);
+		}
+		if (size == val.length) {
+			val= Arrays.copyOf(val, 2 * size);
+			pri= Arrays.copyOf(pri, 2 * size);
+		}
+		val[size]= v;
+		pri[size]= p;
+		pos[v]= size;
+		size++ ;
+		bubbleUp(size - 1);
+	}
+
+	/** Insert v with priority p to the heap, as insert(v, (double) p) does. */
+	@Override
+	public void insert(int v, int p) {
+		insert(v, (double) p);
+	}
+
+	/** If this is a min-heap, return the heap value with lowest priority. <br>
+	 * If this is a max-heap, return the heap value with highest priority.<br>
+	 * Do not change the heap. This operation takes constant time. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	public int peek() {
+		if (size == 0) throw new NoSuchElementException();
+		return val[0];
+	}
+
+	/** If this is a min-heap, remove and return heap value with lowest priority. <br>
+	 * If this is a max-heap, remove and return heap value with highest priority. <br>
+	 * Worst-case time: logarithmic in the size of the heap.<br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	@Override
+	public int poll() {
+		if (size == 0) throw new NoSuchElementException();
+		int result= val[0];
+		pos[result]= -1;
+		size-- ;
+		if (size > 0) {
+			val[0]= val[size];
+			pri[0]= pri[size];
+			pos[val[0]]= 0;
+			bubbleDown(0);
+		}
+		return result;
+	}
+
+	/** Change the priority of value v to p. <br>
+	 * Worst-case time: logarithmic in the size of the heap.<br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	public void changePriority(int v, double p) {
+		if (!contains(v)) throw new IllegalArgumentException();
+		int h= pos[v];
+		pri[h]= p;
+		bubbleUp(h);
+		bubbleDown(pos[v]);
+	}
+
+	/** Change the priority of value v to p, as changePriority(v, (double) p) does. */
+	@Override
+	public void changePriority(int v, int p) {
+		changePriority(v, (double) p);
+	}
+
+	/** Return true iff a value with priority p1 belongs above a value with priority p2. */
+	private boolean above(double p1, double p2) {
+		return isMinHeap ? p1 < p2 : p1 > p2;
+	}
+
+	/** Bubble val[h] up the heap to its right place. Equal priorities are not swapped. <br>
+	 * Precondition: 0 <= h < size and the class invariant is true, except perhaps that <br>
+	 * val[h] belongs above its parent. */
+	private void bubbleUp(int h) {
+		int v= val[h];
+		double p= pri[h];
+		while (h > 0) {
+			int parent= (h - 1) / 2;
+			if (!above(p, pri[parent])) break;
+			val[h]= val[parent];
+			pri[h]= pri[parent];
+			pos[val[h]]= h;
+			h= parent;
+		}
+		val[h]= v;
+		pri[h]= p;
+		pos[v]= h;
+	}
+
+	/** Bubble val[h] down the heap to its right place. If the two children have the <br>
+	 * same priority, choose the left one. Equal priorities are not swapped. <br>
+	 * Precondition: 0 <= h < size and the class invariant is true, except perhaps that <br>
+	 * val[h] belongs below one or both of its children. */
+	private void bubbleDown(int h) {
+		int v= val[h];
+		double p= pri[h];
+		while (2 * h + 1 < size) {
+			int c= 2 * h + 1;
+			if (c + 1 < size && above(pri[c + 1], pri[c])) c= c + 1;
+			if (!above(pri[c], p)) break;
+			val[h]= val[c];
+			pri[h]= pri[c];
+			pos[val[h]]= h;
+			h= c;
+		}
+		val[h]= v;
+		pri[h]= p;
+		pos[v]= h;
+	}
+}
@@ -0,0 +1,110 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/** JUnit tests for class IndexedIntHeap. */
+public class IndexedIntHeapTest {
+
+	/** Test that values are polled in order of priority from a min-heap and from <br>
+	 * a max-heap, including values beyond the initial capacity. */
+	@Test
+	public void testHeapOrder() {
+		Random rand= new Random(5);
+		for (boolean isMin : new boolean[] { true, false }) {
+			IndexedIntHeap h= new IndexedIntHeap(4, isMin);
+			double[] p= new double[1000];
+			for (int v= 0; v < p.length; v++ ) {
+				p[v]= rand.nextInt(100000);
+				h.insert(v, p[v]);
+			}
+			assertEquals(p.length, h.size());
+			double last= isMin ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			while (h.size() > 0) {
+				int v= h.peek();
+				assertEquals(v, h.poll());
+				assertTrue(isMin ? last <= p[v] : last >= p[v]);
+				last= p[v];
+			}
+		}
+	}
+
+	/** Test decrease-key and increase-key with changePriority against a TreeSet <br>
+	 * of (priority, value) pairs. */
+	@Test
+	public void testChangePriority() {
+		Random rand= new Random(6);
+		IndexedIntHeap h= new IndexedIntHeap(16, true);
+		TreeSet<long[]> ref= new TreeSet<>((a, b) -> a[0] != b[0] ?
+			Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+		long[] p= new long[500];
+		for (int v= 0; v < p.length; v++ ) {
+			// distinct priorities, so that the order of polls is determined
+			p[v]= (long) rand.nextInt(1000000) * p.length + v;
+			h.insert(v, p[v]);
+			ref.add(new long[] { p[v], v });
+		}
+		for (int k= 0; k < 2000; k++ ) {
+			int v= rand.nextInt(p.length);
+			ref.remove(new long[] { p[v], v });
+			// mostly decrease-key, as in Dijkstra's algorithm
+			p[v]= rand.nextInt(4) == 0 ? p[v] + p.length * 1000L : p[v] - p.length * 1000L;
+			h.changePriority(v, p[v]);
+			assertEquals(p[v], h.priority(v), 0);
+			ref.add(new long[] { p[v], v });
+		}
+		while (!ref.isEmpty()) {
+			assertEquals(ref.pollFirst()[1], h.poll());
+		}
+	}
+
+	/** Test contains and priority after insert and poll, and clear. */
+	@Test
+	public void testContains() {
+		IndexedIntHeap h= new IndexedIntHeap(2, true);
+		assertFalse(h.contains(0));
+		assertFalse(h.contains(-1));
+		assertFalse(h.contains(100));
+		h.insert(3, 3.0);
+		h.insert(1, 1.0);
+		h.insert(100, 2.0);
+		assertTrue(h.contains(3));
+		assertTrue(h.contains(100));
+		assertEquals(1, h.poll());
+		assertFalse(h.contains(1));
+		assertThrows(IllegalArgumentException.class, () -> h.priority(1));
+		assertThrows(IllegalArgumentException.class, () -> h.changePriority(1, 0.0));
+		h.insert(1, 5.0); // a polled value can be inserted again
+		assertEquals(100, h.poll());
+		assertEquals(3, h.poll());
+		assertEquals(1, h.poll());
+		assertFalse(h.contains(3));
+
+		h.insert(7, 7.0);
+		h.insert(8, 8.0);
+		h.clear();
+		assertEquals(0, h.size());
+		assertFalse(h.contains(7));
+		assertFalse(h.contains(8));
+	}
+
+	/** Test the exceptions. */
+	@Test
+	public void testExceptions() {
+		IndexedIntHeap h= new IndexedIntHeap(0, true);
+		assertThrows(NoSuchElementException.class, () -> h.peek());
+		assertThrows(NoSuchElementException.class, () -> h.poll());
+		assertThrows(IllegalArgumentException.class, () -> h.insert(-1, 0.0));
+		h.insert(0, 0.0);
+		assertThrows(IllegalArgumentException.class, () -> h.insert(0, 1.0));
+		assertThrows(IllegalArgumentException.class, () -> h.changePriority(1, 1.0));
+	}
+}
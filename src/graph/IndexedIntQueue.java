@@ -0,0 +1,31 @@
+package graph;
+
+/** An instance is a min-priority queue of distinct int values v, all with v >= 0, <br>
+ * with int priorities: the frontier set of Dijkstra's algorithm on a graph whose <br>
+ * nodes are numbered 0, 1, 2, ... and whose edge lengths are ints.
+ *
+ * It is implemented by IndexedIntHeap, a min- or max-heap (used as a min-heap here), <br>
+ * and by BucketQueue, for Dial's algorithm, so that one relaxation loop serves both. */
+public interface IndexedIntQueue {
+
+	/** Return the size of this queue. */
+	int size();
+
+	/** Return true iff v is in this queue. */
+	boolean contains(int v);
+
+	/** Remove all values from this queue. */
+	void clear();
+
+	/** Insert v with priority p to the queue. <br>
+	 * Throw an IllegalArgumentException if v < 0 or v is already in the queue. */
+	void insert(int v, int p);
+
+	/** Remove and return a value with the lowest priority. <br>
+	 * Throw a NoSuchElementException if the queue is empty. */
+	int poll();
+
+	/** Change the priority of value v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the queue. */
+	void changePriority(int v, int p);
+}
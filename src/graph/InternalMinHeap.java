@@ -2,7 +2,6 @@ package graph;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.NoSuchElementException;
 
 /** An instance is a max-heap or a min-heap of distinct values of type E <br>
@@ -41,13 +40,13 @@ import java.util.NoSuchElementException;
 	protected final boolean isMinHeap;
 	protected VP[] b;
 	protected int size;
-	protected HashMap<E, Integer> map; // "map" for dictionary
+	protected PositionIndex<E> map; // "map" for dictionary
 
 	/** Constructor: an empty min-heap with capacity 10. */
 	public InternalMinHeap() {
 		isMinHeap= true;
 		b= createVPArray(10);
-		map= new HashMap<>();
+		map= new PositionIndex<>(false);
 	}
 
 	/** Constructor: an empty heap with capacity 10. <br>
@@ -55,7 +54,7 @@ import java.util.NoSuchElementException;
 	public InternalMinHeap(boolean isMin) {
 		isMinHeap= isMin;
 		b= createVPArray(10);
-		map= new HashMap<>();
+		map= new PositionIndex<>(false);
 	}
 
 	/** A VP object houses a value and a priority. */
@@ -256,8 +255,8 @@ import java.util.NoSuchElementException;
 		// test50... won't find errors.
 		// Also, if these work, testing procedures test70Strings
 		// and test90bigTests should not find errors.
-		Integer k= map.get(v);
-		if (k == null) throw new IllegalArgumentException();
+		int k= map.get(v);
+		if (k < 0) throw new IllegalArgumentException();
 		b[k].priority= p;
 		bubbleUp(k);
 		bubbleDown(k);
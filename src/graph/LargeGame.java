@@ -0,0 +1,297 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import diver.McDiver;
+
+/** An instance is a game on sewers of any size up to CompactSewers.MAX_TILES tiles, <br>
+ * far beyond GameState's MAX_ROWS and MAX_COLS, to stress a SewerDiver on huge mazes.
+ *
+ * The sewers are CompactSewers, and the nodes given to the diver are their flyweights. <br>
+ * The rules are those of GameState: a find move costs one step, a flee move costs the <br>
+ * length of its edge, coins are picked up when the flee phase starts and on each move, <br>
+ * the steps to flee are computed the same way, and so is the score. There is no GUI, <br>
+ * no time limit and no printing; the game runs on the calling thread.
+ *
+ * On large maps, McDiver's flee does not build a DistanceOracle, whose tables have an <br>
+ * entry for every (coin tile, node) pair: above McDiver.MAX_ORACLE_ENTRIES entries it <br>
+ * uses a LocalFlee, which keeps one distance to the exit per node and searches only <br>
+ * around McDiver for the next coin. At 1000 x 1000 tiles, a game then plays in a few <br>
+ * seconds; at 3000 x 3000, in about a minute, in a heap of 1.5 GB. */
+public final class LargeGame implements FindState, FleeState {
+
+	/** The seed, and the find- and flee- sewers generated from it */
+	private final long seed;
+	private final CompactSewers findSewer, fleeSewer;
+
+	private final SewerDiver sewerDiver;
+
+	/** The current phase (null before the game is run), and McDiver's tile in its sewers */
+	private GameState.Phase phase;
+	private int position;
+
+	/** steps taken in the find phase, steps left in the flee phase, coins collected, <br>
+	 * and the fewest steps in which the find phase, and the flee phase, could be done */
+	private int stepsTaken, stepsToGo, coinsCollected, minFindSteps, minFleeSteps;
+
+	/** Whether each phase succeeded, or threw something (which is kept) */
+	private boolean findSucceeded, fleeSucceeded;
+	private Throwable findError, fleeError;
+
+	/** Constructor: a game for sd on sewers of rows rows and cols columns generated <br>
+	 * from seed, as GameState generates them: the find sewer, then the flee sewer with its <br>
+	 * entrance at the ring of the find sewer, from one Random(seed). <br>
+	 * Throw an IllegalArgumentException if rows < 3, cols < 3, or the sewers would have <br>
+	 * more than CompactSewers.MAX_TILES tiles. */
+	public LargeGame(long seed, int rows, int cols, SewerDiver sd) {
+		if (rows < 3 || cols < 3) {
+			throw new IllegalArgumentException("rows and cols must be >= 3");
+		}
+		this.seed= seed;
+		sewerDiver= sd;
+		Random rand= new Random(seed);
+		findSewer= CompactSewers.digExploreSewer(rows, cols, rand);
+		int ring= findSewer.ring();
+		minFindSteps= findSewer.minPathLength(findSewer.entrance(), ring);
+		findSewer.releaseScratch();
+		fleeSewer= CompactSewers.digGetOutSewer(rows, cols, findSewer.row(ring),
+			findSewer.column(ring), rand);
+		minFleeSteps= fleeSewer.minPathLength(fleeStart(), fleeSewer.ring());
+		fleeSewer.releaseScratch();
+	}
+
+	/** Return the tile of the flee sewer where the flee phase starts: that of the ring. */
+	private int fleeStart() {
+		int ring= findSewer.ring();
+		return fleeSewer.index(findSewer.row(ring), findSewer.column(ring));
+	}
+
+	/** Return the find sewer. */
+	public CompactSewers findSewer() {
+		return findSewer;
+	}
+
+	/** Return the flee sewer. */
+	public CompactSewers fleeSewer() {
+		return fleeSewer;
+	}
+
+	/** Run the find phase and, if it succeeds, the flee phase. */
+	public void run() {
+		find();
+		if (findSucceeded) flee();
+	}
+
+	/** Run the sewerDiver's find(). */
+	private void find() {
+		phase= GameState.Phase.FIND;
+		stepsTaken= 0;
+		position= findSewer.entrance();
+		try {
+			sewerDiver.find(this);
+			findSucceeded= position == findSewer.ring();
+		} catch (Throwable t) {
+			findError= t;
+		}
+	}
+
+	/** Run the sewerDiver's flee(), from the tile of the flee sewer where the ring was. */
+	private void flee() {
+		phase= GameState.Phase.FLEE;
+		position= fleeStart();
+		stepsToGo= (int) (minFleeSteps + GameState.EXTRA_TIME_FACTOR *
+			(Sewers.MAX_EDGE_WEIGHT + 1) * fleeSewer.numOpenTiles() / 2);
+		coinsCollected= fleeSewer.takeCoins(position);
+		try {
+			sewerDiver.flee(this);
+			fleeSucceeded= position == fleeSewer.ring();
+		} catch (GameState.OutOfTimeException e) {
+			// The diver did not get out: fleeSucceeded stays false.
+		} catch (Throwable t) {
+			fleeError= t;
+		}
+	}
+
+	/** Throw an IllegalStateException if the current phase is not p. */
+	private void checkPhase(GameState.Phase p, String method) {
+		if (phase != p) {
+			throw new IllegalStateException(method + " can be called only in phase " + p);
+		}
+	}
+
+	@Override
+	public long currentLocation() {
+		checkPhase(GameState.Phase.FIND, "currentLocation()");
+		return position;
+	}
+
+	@Override
+	public Collection<NodeStatus> neighbors() {
+		checkPhase(GameState.Phase.FIND, "neighbors()");
+		Collection<NodeStatus> options= new ArrayList<>(4);
+		// In the order of the neighbors of a Sewers node, as GameState gives them.
+		for (int d : CompactSewers.EXIT_ORDER) {
+			int q= findSewer.neighbor(position, d);
+			if (q >= 0) options.add(new NodeStatus(q, distanceToRing(q)));
+		}
+		return options;
+	}
+
+	@Override
+	public int distanceToRing() {
+		checkPhase(GameState.Phase.FIND, "distanceToRing()");
+		return distanceToRing(position);
+	}
+
+	/** Return the Manhattan distance from tile k of the find sewer to the ring. */
+	private int distanceToRing(int k) {
+		int ring= findSewer.ring();
+		return Math.abs(findSewer.row(k) - findSewer.row(ring)) +
+			Math.abs(findSewer.column(k) - findSewer.column(ring));
+	}
+
+	@Override
+	public void moveTo(long id) {
+		checkPhase(GameState.Phase.FIND, "moveTo(long)");
+		if (id < 0 || id > Integer.MAX_VALUE ||
+			findSewer.lengthBetween(position, (int) id) == 0) {
+			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+		}
+		position= (int) id;
+		stepsTaken++ ;
+	}
+
+	@Override
+	public Node currentNode() {
+		checkPhase(GameState.Phase.FLEE, "currentNode()");
+		return fleeSewer.node(position);
+	}
+
+	@Override
+	public Node exit() {
+		checkPhase(GameState.Phase.FLEE, "exit()");
+		return fleeSewer.node(fleeSewer.ring());
+	}
+
+	@Override
+	public Collection<Node> allNodes() {
+		checkPhase(GameState.Phase.FLEE, "allNodes()");
+		return Collections.unmodifiableCollection(fleeSewer.nodes());
+	}
+
+	@Override
+	public void moveTo(Node n) {
+		checkPhase(GameState.Phase.FLEE, "moveTo(Node)");
+		int q= fleeSewer.indexOf(n);
+		int distance= fleeSewer.lengthBetween(position, q);
+		if (distance == 0) {
+			throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+		}
+		if (stepsToGo - distance < 0) throw new GameState.OutOfTimeException();
+		position= q;
+		stepsToGo-= distance;
+		coinsCollected+= fleeSewer.takeCoins(position);
+	}
+
+	@Override
+	public int stepsToGo() {
+		checkPhase(GameState.Phase.FLEE, "stepsToGo()");
+		return stepsToGo;
+	}
+
+	/** Return the seed of this game. */
+	public long seed() {
+		return seed;
+	}
+
+	/** Return the steps taken in the find phase, and the fewest it could have taken. */
+	public int stepsTaken() {
+		return stepsTaken;
+	}
+
+	public int minFindSteps() {
+		return minFindSteps;
+	}
+
+	/** Return the coins collected. */
+	public int coinsCollected() {
+		return coinsCollected;
+	}
+
+	/** Return the score, computed as GameState computes it. */
+	public int score() {
+		double findDiff= (stepsTaken - minFindSteps) / (double) minFindSteps;
+		double bonus= GameState.MAX_BONUS;
+		if (findDiff > 0) {
+			double multDiff= GameState.MAX_BONUS - GameState.MIN_BONUS;
+			bonus= Math.max(GameState.MIN_BONUS,
+				GameState.MAX_BONUS - findDiff / GameState.NO_BONUS_LENGTH * multDiff);
+		}
+		return (int) (bonus * coinsCollected);
+	}
+
+	/** Return true iff the find phase, and the flee phase, succeeded. */
+	public boolean findSucceeded() {
+		return findSucceeded;
+	}
+
+	public boolean fleeSucceeded() {
+		return fleeSucceeded;
+	}
+
+	/** Return what the find phase, and the flee phase, threw (null if nothing). */
+	public Throwable findError() {
+		return findError;
+	}
+
+	public Throwable fleeError() {
+		return fleeError;
+	}
+
+	/** Play one large game with a McDiver and print its outcome. Parameters: <br>
+	 * -r rows: the number of rows (default 1000) <br>
+	 * -c cols: the number of columns (default 1000) <br>
+	 * -s seed: the seed (default 0) */
+	public static void main(String[] args) {
+		List<String> argList= Arrays.asList(args);
+		int rows;
+		int cols;
+		long seed;
+		try {
+			rows= Integer.parseInt(option(argList, "-r", "1000"));
+			cols= Integer.parseInt(option(argList, "-c", "1000"));
+			seed= Long.parseLong(option(argList, "-s", "0"));
+		} catch (NumberFormatException e) {
+			System.err.println("Error, -r, -c and -s must be followed by a number");
+			return;
+		}
+
+		long start= System.currentTimeMillis();
+		LargeGame g= new LargeGame(seed, rows, cols, new McDiver(true, seed));
+		long generated= System.currentTimeMillis();
+		g.run();
+		long end= System.currentTimeMillis();
+		System.out.println(rows + " x " + cols + ", seed " + seed + ": " +
+			g.findSewer.numOpenTiles() + " and " + g.fleeSewer.numOpenTiles() +
+			" open tiles, generated in " + (generated - start) + " ms");
+		System.out.println("Find: " + (g.findSucceeded ? "succeeded" : "failed") + " in " +
+			g.stepsTaken + " steps (fewest " + g.minFindSteps + ")" +
+			(g.findError == null ? "" : ", threw " + g.findError));
+		System.out.println("Flee: " + (g.fleeSucceeded ? "succeeded" : "failed") + " with " +
+			g.coinsCollected + " coins, score " + g.score() +
+			(g.fleeError == null ? "" : ", threw " + g.fleeError));
+		System.out.println("Played in " + (end - generated) + " ms");
+	}
+
+	/** Return the argument following name in args, or dflt if name is not in args <br>
+	 * or is the last argument. */
+	private static String option(List<String> args, String name, String dflt) {
+		int k= args.indexOf(name);
+		return k < 0 || k + 1 >= args.size() ? dflt : args.get(k + 1);
+	}
+}
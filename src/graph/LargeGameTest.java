@@ -0,0 +1,64 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import diver.McDiver;
+
+/** JUnit tests for class LargeGame. */
+public class LargeGameTest {
+
+	/** Play the game for seed on sewers of rows rows and cols columns with a McDiver, <br>
+	 * and check that both phases succeed, that some coins are collected, and that the <br>
+	 * find phase took at least the fewest steps it could. */
+	private static LargeGame play(long seed, int rows, int cols) {
+		LargeGame g= new LargeGame(seed, rows, cols, new McDiver(true, seed));
+		g.run();
+		assertNull(g.findError());
+		assertNull(g.fleeError());
+		assertTrue(g.findSucceeded());
+		assertTrue(g.fleeSucceeded());
+		assertTrue(g.coinsCollected() > 0);
+		assertTrue(g.stepsTaken() >= g.minFindSteps());
+		return g;
+	}
+
+	/** Test a game small enough for McDiver's flee to build a DistanceOracle. */
+	@Test
+	public void testSmall() {
+		play(0, 20, 30);
+	}
+
+	/** Test games too large for a DistanceOracle, where McDiver's flee uses a LocalFlee. */
+	@Test
+	public void testLarge() {
+		for (long seed= 0; seed < 2; seed++ ) {
+			LargeGame g= play(seed, 200, 300);
+			long nodes= g.fleeSewer().numOpenTiles();
+			assertTrue(nodes * nodes > McDiver.MAX_ORACLE_ENTRIES);
+		}
+	}
+
+	/** Test that the same seed gives the same game. */
+	@Test
+	public void testDeterministic() {
+		LargeGame g1= play(3, 100, 100);
+		LargeGame g2= play(3, 100, 100);
+		assertEquals(g1.stepsTaken(), g2.stepsTaken());
+		assertEquals(g1.coinsCollected(), g2.coinsCollected());
+		assertEquals(g1.score(), g2.score());
+	}
+
+	/** Test the exceptions: too few rows or columns. */
+	@Test
+	public void testExceptions() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new LargeGame(0, 2, 10, new McDiver(true, 0)));
+		assertThrows(IllegalArgumentException.class,
+			() -> new LargeGame(0, 10, 2, new McDiver(true, 0)));
+	}
+}
@@ -0,0 +1,54 @@
+package graph;
+
+/** An instance passes every event on to two listeners, first then second. <br>
+ * Chains of instances notify any number of listeners. */
+/* package */ final class MulticastEventListener implements GameEventListener {
+
+	/** The listeners, notified in this order */
+	private final GameEventListener first, second;
+
+	/** Constructor: a listener that notifies a and then b. */
+	MulticastEventListener(GameEventListener a, GameEventListener b) {
+		first= a;
+		second= b;
+	}
+
+	@Override
+	public void phaseStarted(GameState.Phase phase, Sewers sewer, Node start, int stepsToGo) {
+		first.phaseStarted(phase, sewer, start, stepsToGo);
+		second.phaseStarted(phase, sewer, start, stepsToGo);
+	}
+
+	@Override
+	public void phaseEnded(GameState.Phase phase, boolean succeeded) {
+		first.phaseEnded(phase, succeeded);
+		second.phaseEnded(phase, succeeded);
+	}
+
+	@Override
+	public void moved(GameState.Phase phase, Node n, int stepsToGo, double bonus) {
+		first.moved(phase, n, stepsToGo, bonus);
+		second.moved(phase, n, stepsToGo, bonus);
+	}
+
+	@Override
+	public void coinsCollected(int coins, int score) {
+		first.coinsCollected(coins, score);
+		second.coinsCollected(coins, score);
+	}
+
+	@Override
+	public void error(String message) {
+		first.error(message);
+		second.error(message);
+	}
+
+	@Override
+	public void close() {
+		try {
+			first.close();
+		} finally {
+			second.close();
+		}
+	}
+}
@@ -2,7 +2,6 @@ package graph;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.Objects;
 import java.util.Set;
 
 /** An instance is a node of the graph */
@@ -30,9 +29,16 @@ public class Node {
 
 	/** Constructor: a node for tile t with id givenId. */
 	/* package */ Node(long givenId, Tile t) {
+		this(givenId, t, true);
+	}
+
+	/** Constructor: a node for tile t with id givenId. If storeEdges is false, the node <br>
+	 * has no room for edges (addEdge must not be called), and a subclass that provides <br>
+	 * them overrides getEdge, getExits and getNeighbors: a flyweight of CompactSewers. */
+	/* package */ Node(long givenId, Tile t, boolean storeEdges) {
 		id= givenId;
-		edges= new LinkedHashSet<>();
-		neighbors= new LinkedHashSet<>();
+		edges= storeEdges ? new LinkedHashSet<>() : Collections.emptySet();
+		neighbors= storeEdges ? new LinkedHashSet<>() : Collections.emptySet();
 
 		unmodifiableEdges= Collections.unmodifiableSet(edges);
 		unmodifiableNeighbors= Collections.unmodifiableSet(neighbors);
@@ -83,8 +89,10 @@ public class Node {
 		return id == ((Node) ob).id;
 	}
 
+	/** Return Objects.hash(id), computed without boxing id into an array: heaps and <br>
+	 * indexes that compare nodes with equals call this on every lookup. */
 	@Override
 	public int hashCode() {
-		return Objects.hash(id);
+		return 31 + Long.hashCode(id);
 	}
 }
@@ -0,0 +1,94 @@
+package graph;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/** An instance is a path in a graph: a sequence of nodes, each joined to the next by an <br>
+ * edge, together with the distance along the path from its first node to each node. <br>
+ * Unlike a List<Node> from A6.shortest, it gives any node, the total weight and the <br>
+ * weight of any prefix in constant time, so walking it or summing it takes no edge <br>
+ * lookups. An instance is immutable. */
+public final class NodePath {
+
+	/** The path with no nodes, returned when there is no path */
+	public static final NodePath EMPTY= new NodePath(new Node[0], new int[0]);
+
+	/** The nodes of the path, in order, and dist[i] = the sum of the lengths of the <br>
+	 * edges from nodes[0] to nodes[i] (so dist[0] = 0). */
+	private final Node[] nodes;
+	private final int[] dist;
+
+	/** Constructor: the path through nodes, in order, with dist[i] the distance along <br>
+	 * it from nodes[0] to nodes[i]. The arrays are not copied; they must not be <br>
+	 * changed afterward. <br>
+	 * Throw an IllegalArgumentException if the arrays have different lengths. */
+	public NodePath(Node[] nodes, int[] dist) {
+		if (nodes.length != dist.length) {
+			throw new IllegalArgumentException("nodes and dist have different lengths");
+		}
+		this.nodes= nodes;
+		this.dist= dist;
+	}
+
+	/** Return the number of nodes on this path. */
+	public int size() {
+		return nodes.length;
+	}
+
+	/** Return true iff this path has no nodes (i.e. there is no path). */
+	public boolean isEmpty() {
+		return nodes.length == 0;
+	}
+
+	/** Return node i of this path (node 0 is its start). */
+	public Node get(int i) {
+		return nodes[i];
+	}
+
+	/** Return the first node of this path. Precondition: the path is not empty. */
+	public Node start() {
+		return nodes[0];
+	}
+
+	/** Return the last node of this path. Precondition: the path is not empty. */
+	public Node end() {
+		return nodes[nodes.length - 1];
+	}
+
+	/** Return the sum of the weights of the edges on this path (0 if it has fewer <br>
+	 * than 2 nodes). */
+	public int weight() {
+		return nodes.length == 0 ? 0 : dist[nodes.length - 1];
+	}
+
+	/** Return the sum of the weights of the edges from the start of this path to node i. */
+	public int weightTo(int i) {
+		return dist[i];
+	}
+
+	/** Return an unmodifiable List view of the nodes of this path. */
+	public List<Node> asList() {
+		return new AbstractList<Node>() {
+			@Override
+			public Node get(int i) {
+				return nodes[i];
+			}
+
+			@Override
+			public int size() {
+				return nodes.length;
+			}
+		};
+	}
+
+	/** Return a representation of this path: its nodes' ids and its weight. */
+	@Override
+	public String toString() {
+		StringBuilder res= new StringBuilder("[");
+		for (int i= 0; i < nodes.length; i++ ) {
+			if (i > 0) res.append(", ");
+			res.append(nodes[i].getId());
+		}
+		return res.append("] weight ").append(weight()).toString();
+	}
+}
@@ -0,0 +1,210 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/** An instance maps keys of type K to nonnegative ints, e.g. the values of a heap to <br>
+ * their positions in the heap's array. It is a replacement for HashMap<K, Integer> <br>
+ * that stores the ints unboxed, in an open-addressing table with linear probing, <br>
+ * so put, get and remove never allocate (except when the table grows).
+ *
+ * Keys are compared with equals and hashCode, or, if the index is created with <br>
+ * identity = true, with == and System.identityHashCode. The latter is right for <br>
+ * canonical objects such as the Nodes of a Sewers and avoids calling hashCode, <br>
+ * which may be slow. null is a valid key.
+ *
+ * This is the only copy: A5's heap.Heap uses it from here, like the heaps of a6 and diver. */
+public final class PositionIndex<K> {
+
+	/** The key stored in the table for key null */
+	private static final Object NULL_KEY= new Object();
+
+	/** Value returned by get and remove for a key that is not in the index */
+	public static final int ABSENT= -1;
+
+	/** Class Invariant: <br>
+	 * 1. keys.length is a power of 2, mask = keys.length - 1, and <br>
+	 * size <= keys.length / 2, so there is always an empty slot. <br>
+	 * 2. For each key k in the index (with null stored as NULL_KEY), there is a slot s <br>
+	 * with keys[s] = k, vals[s] the int k maps to, and hashes[s] = hash(k). <br>
+	 * keys[s] = null for all other slots. <br>
+	 * 3. If k is in slot s, then no slot in the cyclic range from hashes[s] & mask <br>
+	 * to s is empty (linear probing). */
+	private final boolean identity;
+	private Object[] keys;
+	private int[] vals;
+	private int[] hashes;
+	private int mask;
+	private int size;
+
+	/** Constructor: an empty index with room for 8 keys (it grows if necessary). <br>
+	 * Keys are compared with == if identity is true and with equals otherwise. */
+	public PositionIndex(boolean identity) {
+		this(8, identity);
+	}
+
+	/** Constructor: an empty index with room for n keys (it grows if necessary). <br>
+	 * Keys are compared with == if identity is true and with equals otherwise. */
+	public PositionIndex(int n, boolean identity) {
+		this.identity= identity;
+		int cap= 4;
+		while (cap < 2 * n && cap < 1 << 30) {
+			cap= 2 * cap;
+		}
+		allocate(cap);
+	}
+
+	/** Return the number of keys in this index. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff k is in this index. */
+	public boolean containsKey(Object k) {
+		return find(k) >= 0;
+	}
+
+	/** Return the int that k maps to, or ABSENT if k is not in this index. */
+	public int get(Object k) {
+		int s= find(k);
+		return s < 0 ? ABSENT : vals[s];
+	}
+
+	/** Map k to v, replacing the int k mapped to before, if any. <br>
+	 * Throw an IllegalArgumentException if v < 0. */
+	public void put(K k, int v) {
+		if (v < 0) throw new IllegalArgumentException("v < 0");
+		Object key= k == null ? NULL_KEY : k;
+		int h= hash(key);
+		int s= h & mask;
+		while (keys[s] != null) {
+			if (hashes[s] == h && same(keys[s], key)) {
+				vals[s]= v;
+				return;
+			}
+			s= (s + 1) & mask;
+		}
+		keys[s]= key;
+		vals[s]= v;
+		hashes[s]= h;
+		size++ ;
+		if (2 * size > keys.length) grow();
+	}
+
+	/** Remove k from this index and return the int it mapped to, <br>
+	 * or ABSENT if k was not in this index. */
+	public int remove(Object k) {
+		int s= find(k);
+		if (s < 0) return ABSENT;
+		int old= vals[s];
+		// Close the gap at s: move back each following key whose probe sequence
+		// passes through s, i.e. whose home slot is not cyclically in (s, j].
+		for (int j= (s + 1) & mask; keys[j] != null; j= (j + 1) & mask) {
+			int home= hashes[j] & mask;
+			boolean stays= s <= j ? s < home && home <= j : s < home || home <= j;
+			if (!stays) {
+				keys[s]= keys[j];
+				vals[s]= vals[j];
+				hashes[s]= hashes[j];
+				s= j;
+			}
+		}
+		keys[s]= null;
+		size-- ;
+		return old;
+	}
+
+	/** Remove all keys from this index. */
+	public void clear() {
+		Arrays.fill(keys, null);
+		size= 0;
+	}
+
+	/** Return true iff ob is a PositionIndex that compares keys the same way <br>
+	 * and has the same mappings as this one. */
+	@Override
+	public boolean equals(Object ob) {
+		if (ob == this) return true;
+		if (!(ob instanceof PositionIndex)) return false;
+		PositionIndex<?> other= (PositionIndex<?>) ob;
+		if (identity != other.identity || size != other.size) return false;
+		for (int s= 0; s < keys.length; s++ ) {
+			if (keys[s] != null && other.get(key(s)) != vals[s]) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h= 0;
+		for (int s= 0; s < keys.length; s++ ) {
+			if (keys[s] != null) h+= hashes[s] ^ vals[s];
+		}
+		return h;
+	}
+
+	/** Return a representation of this index, in the form {k1=v1, k2=v2}. */
+	@Override
+	public String toString() {
+		StringBuilder res= new StringBuilder("{");
+		for (int s= 0; s < keys.length; s++ ) {
+			if (keys[s] == null) continue;
+			if (res.length() > 1) res.append(", ");
+			res.append(key(s)).append('=').append(vals[s]);
+		}
+		return res.append('}').toString();
+	}
+
+	/** Return the key in slot s, with NULL_KEY changed back to null. */
+	private Object key(int s) {
+		return keys[s] == NULL_KEY ? null : keys[s];
+	}
+
+	/** Return the slot of k, or -1 if k is not in this index. */
+	private int find(Object k) {
+		Object key= k == null ? NULL_KEY : k;
+		int h= hash(key);
+		for (int s= h & mask; keys[s] != null; s= (s + 1) & mask) {
+			if (hashes[s] == h && same(keys[s], key)) return s;
+		}
+		return -1;
+	}
+
+	/** Return the hash of key, spread so that its low bits depend on all its bits. */
+	private int hash(Object key) {
+		int h= identity ? System.identityHashCode(key) : key.hashCode();
+		h*= 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/** Return true iff stored key a and key b are the same key. */
+	private boolean same(Object a, Object b) {
+		return a == b || !identity && Objects.equals(a, b);
+	}
+
+	/** Make the table empty, with cap slots. */
+	private void allocate(int cap) {
+		keys= new Object[cap];
+		vals= new int[cap];
+		hashes= new int[cap];
+		mask= cap - 1;
+	}
+
+	/** Double the size of the table, keeping all the mappings. */
+	private void grow() {
+		Object[] oldKeys= keys;
+		int[] oldVals= vals;
+		int[] oldHashes= hashes;
+		allocate(2 * keys.length);
+		for (int t= 0; t < oldKeys.length; t++ ) {
+			if (oldKeys[t] == null) continue;
+			int s= oldHashes[t] & mask;
+			while (keys[s] != null) {
+				s= (s + 1) & mask;
+			}
+			keys[s]= oldKeys[t];
+			vals[s]= oldVals[t];
+			hashes[s]= oldHashes[t];
+		}
+	}
+}
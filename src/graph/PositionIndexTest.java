@@ -0,0 +1,80 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PositionIndexTest {
+
+	/** A key whose hashCode has few values, so that many keys collide. */
+	private static final class Key {
+		private final int x;
+
+		private Key(int x) {
+			this.x= x;
+		}
+
+		@Override
+		public int hashCode() {
+			return x % 7;
+		}
+
+		@Override
+		public boolean equals(Object ob) {
+			return ob instanceof Key && ((Key) ob).x == x;
+		}
+	}
+
+	@Test
+	/** Test put, get, remove and size against a HashMap, with colliding keys and null. */
+	public void testAgainstHashMap() {
+		Random rand= new Random(3);
+		PositionIndex<Key> index= new PositionIndex<>(false);
+		HashMap<Key, Integer> map= new HashMap<>();
+		for (int k= 0; k < 20000; k= k + 1) {
+			int x= rand.nextInt(300);
+			Key key= x == 0 ? null : new Key(x);
+			int op= rand.nextInt(3);
+			if (op == 0) {
+				int v= rand.nextInt(1000);
+				index.put(key, v);
+				map.put(key, v);
+			} else if (op == 1) {
+				Integer old= map.remove(key);
+				assertEquals(old == null ? PositionIndex.ABSENT : old, index.remove(key));
+			} else {
+				Integer v= map.get(key);
+				assertEquals(v == null ? PositionIndex.ABSENT : v, index.get(key));
+				assertEquals(map.containsKey(key), index.containsKey(key));
+			}
+			assertEquals(map.size(), index.size());
+		}
+	}
+
+	@Test
+	/** Test identity comparison, equals and the exception. */
+	public void testIdentityAndEquals() {
+		PositionIndex<Key> id= new PositionIndex<>(true);
+		Key k1= new Key(1);
+		id.put(k1, 3);
+		assertEquals(3, id.get(k1));
+		assertEquals(PositionIndex.ABSENT, id.get(new Key(1)));
+
+		PositionIndex<Key> eq1= new PositionIndex<>(false);
+		PositionIndex<Key> eq2= new PositionIndex<>(100, false);
+		for (int k= 0; k < 50; k= k + 1) {
+			eq1.put(new Key(k), k);
+			eq2.put(new Key(49 - k), 49 - k);
+		}
+		assertEquals(eq1, eq2);
+		assertEquals(eq1.hashCode(), eq2.hashCode());
+		eq2.put(new Key(3), 4);
+		assertEquals(false, eq1.equals(eq2));
+
+		assertThrows(IllegalArgumentException.class, () -> { eq1.put(k1, -1); });
+	}
+}
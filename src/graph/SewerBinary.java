@@ -0,0 +1,196 @@
+package graph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** A compact binary format for Sewers, an alternative to the text format of <br>
+ * Sewers.serialize() and Sewers.deserialize().
+ *
+ * A sewer system with r rows and c columns, so n = r*c tiles, is stored as: <br>
+ * int MAGIC, int r, int c, int (dense index of the ring), <br>
+ * n bytes: the ordinal of the TileType of each tile, <br>
+ * n ints: the coins on each tile, <br>
+ * n bytes: the edge weights of each tile: the high nibble is the weight of the edge to <br>
+ * .. the tile to the east, the low nibble the weight of the edge to the tile to the south <br>
+ * .. (0 means there is no edge). <br>
+ * Tiles are in row-major order, i.e. tile (i, j) has dense index i*c + j. All ints are <br>
+ * big-endian. Records can be concatenated: read(ByteBuffer) reads one record and leaves <br>
+ * the buffer positioned at the next. Reading creates no Strings, so a whole corpus can <br>
+ * be read straight from a MappedByteBuffer (see readAll(Path)). */
+public final class SewerBinary {
+
+	/** The first int of every record ("SWR1") */
+	public static final int MAGIC= 0x53575231;
+
+	/** Number of bytes in a record's header */
+	private static final int HEADER_BYTES= 4 * Integer.BYTES;
+
+	/** The tile types, indexed by ordinal */
+	private static final Tile.TileType[] TYPES= Tile.TileType.values();
+
+	/** This class is not to be instantiated. */
+	private SewerBinary() {}
+
+	/** Return the number of bytes of the record for s. */
+	public static int encodedSize(Sewers s) {
+		int n= s.rowCount() * s.columnCount();
+		return HEADER_BYTES + n + n * Integer.BYTES + n;
+	}
+
+	/** Put the record for s into buf, starting at buf's position. <br>
+	 * Throw an IllegalArgumentException if an edge weight is not in 1..15 or if an edge <br>
+	 * does not join two grid neighbors with the same weight both ways.<br>
+	 * Precondition: buf has at least encodedSize(s) bytes remaining. */
+	public static void write(Sewers s, ByteBuffer buf) {
+		int rows= s.rowCount();
+		int cols= s.columnCount();
+		Tile ring= s.ring().getTile();
+		buf.putInt(MAGIC);
+		buf.putInt(rows);
+		buf.putInt(cols);
+		buf.putInt(ring.row() * cols + ring.column());
+
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				buf.put((byte) s.tileAt(i, j).type().ordinal());
+			}
+		}
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				buf.putInt(s.tileAt(i, j).coins());
+			}
+		}
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				Node node= s.nodeAt(i, j);
+				int east= 0, south= 0;
+				for (Edge e : node.getExits()) {
+					Node other= e.getOther(node);
+					Tile t= other.getTile();
+					int w= e.length;
+					if (w < 1 || w > 15) {
+						throw new IllegalArgumentException("Edge weight " + w + " not in 1..15");
+					}
+					if (Math.abs(t.row() - i) + Math.abs(t.column() - j) != 1 ||
+						other.getEdge(node).length != w) {
+						throw new IllegalArgumentException(
+							"Edge is not between grid neighbors with the same weight both ways");
+					}
+					if (t.column() == j + 1) east= w;
+					if (t.row() == i + 1) south= w;
+				}
+				buf.put((byte) (east << 4 | south));
+			}
+		}
+	}
+
+	/** Return the record for s as an array of bytes. */
+	public static byte[] toBytes(Sewers s) {
+		ByteBuffer buf= ByteBuffer.allocate(encodedSize(s));
+		write(s, buf);
+		return buf.array();
+	}
+
+	/** Write the record for s to out. */
+	public static void write(Sewers s, OutputStream out) throws IOException {
+		out.write(toBytes(s));
+	}
+
+	/** Write the records for all elements of sewers to file f, replacing its contents. */
+	public static void writeAll(List<Sewers> sewers, Path f) throws IOException {
+		int size= 0;
+		for (Sewers s : sewers) {
+			size+= encodedSize(s);
+		}
+		ByteBuffer buf= ByteBuffer.allocate(size);
+		for (Sewers s : sewers) {
+			write(s, buf);
+		}
+		buf.flip();
+		try (FileChannel ch= FileChannel.open(f, StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buf.hasRemaining()) {
+				ch.write(buf);
+			}
+		}
+	}
+
+	/** Read one record from buf, starting at its position, and return it as a Sewers. <br>
+	 * buf is left positioned just after the record. <br>
+	 * Throw an IllegalArgumentException if buf does not contain a well-formed record. */
+	public static Sewers read(ByteBuffer buf) {
+		try {
+			if (buf.getInt() != MAGIC) throw new IllegalArgumentException("Not a sewer record");
+			int rows= buf.getInt();
+			int cols= buf.getInt();
+			int ringIndex= buf.getInt();
+			if (rows < 1 || cols < 1 || ringIndex < 0 || ringIndex >= rows * cols) {
+				throw new IllegalArgumentException("Bad sewer record header");
+			}
+			int n= rows * cols;
+			int typesAt= buf.position();
+			int coinsAt= typesAt + n;
+			int edgesAt= coinsAt + n * Integer.BYTES;
+
+			Node[][] tiles= new Node[rows][cols];
+			Set<Node> graph= new HashSet<>();
+			for (int i= 0, k= 0; i < rows; i++ ) {
+				for (int j= 0; j < cols; j++ , k++ ) {
+					Tile.TileType type= TYPES[buf.get(typesAt + k)];
+					int coins= buf.getInt(coinsAt + k * Integer.BYTES);
+					tiles[i][j]= new Node(new Tile(i, j, coins, type), cols);
+					if (type != Tile.TileType.WALL) graph.add(tiles[i][j]);
+				}
+			}
+
+			// Add edges in the same order as Sewers.createEdges, so that each node's
+			// exits are in the same order as in a freshly generated Sewers.
+			for (int i= 0, k= 0; i < rows; i++ ) {
+				for (int j= 0; j < cols; j++ , k++ ) {
+					int packed= buf.get(edgesAt + k) & 0xff;
+					int east= packed >>> 4, south= packed & 0xf;
+					if (south > 0) addEdges(tiles[i][j], tiles[i + 1][j], south);
+					if (east > 0) addEdges(tiles[i][j], tiles[i][j + 1], east);
+				}
+			}
+			buf.position(edgesAt + n);
+
+			return new Sewers(graph, tiles, tiles[ringIndex / cols][ringIndex % cols]);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Truncated or malformed sewer record", e);
+		}
+	}
+
+	/** Read one record from b and return it as a Sewers. */
+	public static Sewers fromBytes(byte[] b) {
+		return read(ByteBuffer.wrap(b));
+	}
+
+	/** Map file f into memory and return the Sewers for all the records in it, in order. */
+	public static List<Sewers> readAll(Path f) throws IOException {
+		try (FileChannel ch= FileChannel.open(f, StandardOpenOption.READ)) {
+			MappedByteBuffer buf= ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			List<Sewers> sewers= new ArrayList<>();
+			while (buf.hasRemaining()) {
+				sewers.add(read(buf));
+			}
+			return sewers;
+		}
+	}
+
+	/** Add edges of length w between m and n, in both directions. */
+	private static void addEdges(Node m, Node n, int w) {
+		m.addEdge(new Edge(m, n, w));
+		n.addEdge(new Edge(n, m, w));
+	}
+}
@@ -0,0 +1,134 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/** JUnit tests for class SewerBinary. */
+public class SewerBinaryTest {
+
+	/** Check that a and b are the same sewer system: the same grid, ring and entrance, <br>
+	 * the same tiles (type, coins, position and id), and for each open tile the same <br>
+	 * exits, in the same order, to the same tiles, with the same lengths. */
+	static void assertSameSewers(Sewers a, Sewers b) {
+		assertEquals(a.rowCount(), b.rowCount());
+		assertEquals(a.columnCount(), b.columnCount());
+		assertEquals(a.numOpenTiles(), b.numOpenTiles());
+		assertEquals(a.ring().getId(), b.ring().getId());
+		assertEquals(a.entrance().getId(), b.entrance().getId());
+		for (int r= 0; r < a.rowCount(); r++ ) {
+			for (int c= 0; c < a.columnCount(); c++ ) {
+				Node m= a.nodeAt(r, c);
+				Node n= b.nodeAt(r, c);
+				String at= "tile (" + r + ", " + c + ")";
+				assertEquals(at, m.getId(), n.getId());
+				assertEquals(at, m.getTile().type(), n.getTile().type());
+				assertEquals(at, m.getTile().coins(), n.getTile().coins());
+				assertEquals(at, r, n.getTile().row());
+				assertEquals(at, c, n.getTile().column());
+				assertEquals(at, exits(m), exits(n));
+			}
+		}
+	}
+
+	/** Return the exits of n as strings "id-length", in the order of n.getExits(). */
+	private static List<String> exits(Node n) {
+		List<String> res= new ArrayList<>();
+		for (Edge e : n.getExits()) {
+			res.add(e.getOther(n).getId() + "-" + e.length);
+		}
+		return res;
+	}
+
+	/** Return the find and flee sewers of the games for seeds 0..count-1. */
+	static List<Sewers> sewers(int count) {
+		List<Sewers> res= new ArrayList<>();
+		for (long seed= 0; seed < count; seed++ ) {
+			SewerPool.Entry e= SewerPool.generate(seed);
+			res.add(e.find);
+			res.add(e.flee);
+		}
+		return res;
+	}
+
+	/** Test that toBytes and then fromBytes gives back the same sewers, and that the <br>
+	 * record has encodedSize bytes. */
+	@Test
+	public void testRoundTrip() {
+		for (Sewers s : sewers(10)) {
+			byte[] b= SewerBinary.toBytes(s);
+			assertEquals(SewerBinary.encodedSize(s), b.length);
+			assertSameSewers(s, SewerBinary.fromBytes(b));
+		}
+	}
+
+	/** Test that records written one after the other are read back in order, <br>
+	 * from a buffer and from a file. */
+	@Test
+	public void testConcatenatedRecords() throws IOException {
+		List<Sewers> sewers= sewers(3);
+		int size= 0;
+		for (Sewers s : sewers) {
+			size+= SewerBinary.encodedSize(s);
+		}
+		ByteBuffer buf= ByteBuffer.allocate(size);
+		for (Sewers s : sewers) {
+			SewerBinary.write(s, buf);
+		}
+		assertEquals(0, buf.remaining());
+		buf.flip();
+		for (Sewers s : sewers) {
+			assertSameSewers(s, SewerBinary.read(buf));
+		}
+		assertEquals(0, buf.remaining());
+
+		Path f= Files.createTempFile("sewers", ".swr");
+		try {
+			SewerBinary.writeAll(sewers, f);
+			List<Sewers> read= SewerBinary.readAll(f);
+			assertEquals(sewers.size(), read.size());
+			for (int k= 0; k < sewers.size(); k++ ) {
+				assertSameSewers(sewers.get(k), read.get(k));
+			}
+		} finally {
+			Files.delete(f);
+		}
+	}
+
+	/** Test that malformed records throw an IllegalArgumentException: a bad magic <br>
+	 * number, a bad header, a truncated record, and a bad tile type. */
+	@Test
+	public void testMalformed() {
+		byte[] good= SewerBinary.toBytes(SewerPool.generate(0).find);
+
+		byte[] magic= good.clone();
+		magic[0]++ ;
+		assertThrows(IllegalArgumentException.class, () -> SewerBinary.fromBytes(magic));
+
+		byte[] rows= good.clone();
+		ByteBuffer.wrap(rows).putInt(Integer.BYTES, 0);
+		assertThrows(IllegalArgumentException.class, () -> SewerBinary.fromBytes(rows));
+
+		byte[] ring= good.clone();
+		ByteBuffer.wrap(ring).putInt(3 * Integer.BYTES, -1);
+		assertThrows(IllegalArgumentException.class, () -> SewerBinary.fromBytes(ring));
+
+		for (int len : new int[] { 0, 3, 4 * Integer.BYTES, good.length / 2, good.length - 1 }) {
+			byte[] cut= Arrays.copyOf(good, len);
+			assertThrows(IllegalArgumentException.class, () -> SewerBinary.fromBytes(cut));
+		}
+
+		byte[] type= good.clone();
+		type[4 * Integer.BYTES]= (byte) Tile.TileType.values().length;
+		assertThrows(IllegalArgumentException.class, () -> SewerBinary.fromBytes(type));
+	}
+}
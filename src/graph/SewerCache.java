@@ -0,0 +1,227 @@
+package graph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** An instance is a cache of generated sewers, so that replaying a seed (e.g. when <br>
+ * regression-testing a diver) does not generate its sewers again.
+ *
+ * A sewer system is cached under the key (seed, rows, cols, phase), as a record of <br>
+ * SewerBinary. There are two tiers: <br>
+ * 1. In memory, the records of the last memoryEntries keys used (least recently used <br>
+ * first out). <br>
+ * 2. On disk, one file per key in a directory, whose total size is kept at most <br>
+ * diskBytes by deleting the least recently used files. A file's last-modified time <br>
+ * is its last use, so the order survives from one run to the next. A get answered <br>
+ * from memory is a use of the file too, so a record that stays in memory is not <br>
+ * evicted from disk as if it were unused.
+ *
+ * A Sewers is changed by the game that uses it (McDiver picks up coins), so the cache <br>
+ * keeps records, not Sewers: each get returns a new Sewers, read from its record. <br>
+ * An instance can be used by several threads at the same time. */
+public final class SewerCache {
+
+	/** Default number of records kept in memory */
+	public static final int DEFAULT_MEMORY_ENTRIES= 256;
+
+	/** Default bound on the size of the files on disk: 256 MB */
+	public static final long DEFAULT_DISK_BYTES= 256L << 20;
+
+	/** The extension of the files of the disk tier */
+	private static final String SUFFIX= ".swr";
+
+	/** The directory of the disk tier, and the bound on the size of its files */
+	private final Path dir;
+	private final long diskBytes;
+
+	/** The memory tier: the record for each key, least recently used first */
+	private final LinkedHashMap<String, byte[]> memory;
+
+	/** The files of the disk tier, by name, with their sizes, least recently used first, <br>
+	 * and the sum of their sizes */
+	private final LinkedHashMap<String, Long> disk= new LinkedHashMap<>(16, 0.75f, true);
+	private long diskSize;
+
+	/** The number of gets answered from memory, from disk, and not at all */
+	private long memoryHits, diskHits, misses;
+
+	/** Constructor: a cache whose disk tier is directory dir (created if necessary), <br>
+	 * holding at most memoryEntries records in memory and diskBytes bytes of files. <br>
+	 * Files with the cache's extension already in dir are part of the disk tier; if they <br>
+	 * exceed diskBytes, the least recently used ones are deleted. <br>
+	 * Throw an IllegalArgumentException if memoryEntries or diskBytes is negative. */
+	public SewerCache(Path dir, int memoryEntries, long diskBytes) throws IOException {
+		if (memoryEntries < 0) throw new IllegalArgumentException("memoryEntries < 0");
+		if (diskBytes < 0) throw new IllegalArgumentException("diskBytes < 0");
+		this.dir= dir;
+		this.diskBytes= diskBytes;
+		memory= new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> e) {
+				return size() > memoryEntries;
+			}
+		};
+
+		Files.createDirectories(dir);
+		List<Path> files= new ArrayList<>();
+		try (DirectoryStream<Path> ds= Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+			for (Path f : ds) {
+				files.add(f);
+			}
+		}
+		Map<Path, FileTime> used= new LinkedHashMap<>();
+		for (Path f : files) {
+			used.put(f, Files.getLastModifiedTime(f));
+		}
+		files.sort(Comparator.comparing(used::get));
+		for (Path f : files) {
+			long size= Files.size(f);
+			disk.put(f.getFileName().toString(), size);
+			diskSize+= size;
+		}
+		evict();
+	}
+
+	/** Return the sewers for seed of phase phase, with rows rows and cols columns, <br>
+	 * or null if they are not in the cache. Each call returns a new Sewers. */
+	public Sewers get(long seed, int rows, int cols, GameState.Phase phase) {
+		String name= name(seed, rows, cols, phase);
+		byte[] b;
+		boolean onDisk;
+		synchronized (this) {
+			b= memory.get(name);
+			// Looking the file up also makes it the most recently used one on disk.
+			onDisk= disk.get(name) != null;
+			if (b != null) {
+				memoryHits++ ;
+			} else if (!onDisk) {
+				misses++ ;
+				return null;
+			}
+		}
+		Path f= dir.resolve(name);
+		if (b != null) {
+			if (onDisk) touch(f);
+			return SewerBinary.fromBytes(b);
+		}
+		try {
+			b= Files.readAllBytes(f);
+			Sewers s= SewerBinary.fromBytes(b);
+			touch(f);
+			synchronized (this) {
+				diskHits++ ;
+				memory.put(name, b);
+			}
+			return s;
+		} catch (IOException | IllegalArgumentException e) {
+			// The file was evicted by another thread or is malformed: a miss.
+			synchronized (this) {
+				Long size= disk.remove(name);
+				if (size != null) diskSize-= size;
+				misses++ ;
+			}
+			return null;
+		}
+	}
+
+	/** Set the last-modified time of file f of the disk tier to now, its last use. <br>
+	 * If f is gone (evicted by another thread), do nothing. */
+	private static void touch(Path f) {
+		try {
+			Files.setLastModifiedTime(f, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// The file was evicted: there is no use to record.
+		}
+	}
+
+	/** Store s in the cache as the sewers for seed of phase phase, with rows rows <br>
+	 * and cols columns, in both tiers. The file is written to a temporary file first <br>
+	 * and moved into place atomically, so it is never seen half written. <br>
+	 * Throw an UncheckedIOException if the file cannot be written. */
+	public void put(long seed, int rows, int cols, GameState.Phase phase, Sewers s) {
+		String name= name(seed, rows, cols, phase);
+		byte[] b= SewerBinary.toBytes(s);
+		synchronized (this) {
+			memory.put(name, b);
+		}
+		try {
+			Path tmp= Files.createTempFile(dir, name, ".tmp");
+			try {
+				Files.write(tmp, b);
+				Files.move(tmp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		synchronized (this) {
+			Long old= disk.put(name, (long) b.length);
+			diskSize+= b.length - (old == null ? 0 : old);
+			evict();
+		}
+	}
+
+	/** Return the sewers of the game for seed, as GameState generates them: from the <br>
+	 * cache if both are there (without generating anything), and otherwise generated by <br>
+	 * SewerPool.generate(seed) and stored in the cache. */
+	public SewerPool.Entry entry(long seed) {
+		int[] size= SewerPool.size(new Random(seed));
+		int rows= size[0];
+		int cols= size[1];
+		Sewers find= get(seed, rows, cols, GameState.Phase.FIND);
+		Sewers flee= find == null ? null : get(seed, rows, cols, GameState.Phase.FLEE);
+		if (flee != null) return new SewerPool.Entry(seed, find, flee);
+
+		SewerPool.Entry e= SewerPool.generate(seed);
+		put(seed, rows, cols, GameState.Phase.FIND, e.find);
+		put(seed, rows, cols, GameState.Phase.FLEE, e.flee);
+		return e;
+	}
+
+	/** Return the number of gets answered from memory, from disk, and not answered, <br>
+	 * in that order. */
+	public synchronized long[] stats() {
+		return new long[] { memoryHits, diskHits, misses };
+	}
+
+	/** Return the total size of the files of the disk tier. */
+	public synchronized long diskSize() {
+		return diskSize;
+	}
+
+	/** Delete least recently used files until the disk tier fits in diskBytes. */
+	private synchronized void evict() {
+		Iterator<Map.Entry<String, Long>> it= disk.entrySet().iterator();
+		while (diskSize > diskBytes && it.hasNext()) {
+			Map.Entry<String, Long> e= it.next();
+			try {
+				Files.deleteIfExists(dir.resolve(e.getKey()));
+			} catch (IOException ex) {
+				// Leave the file; it is no longer part of the tier.
+			}
+			diskSize-= e.getValue();
+			it.remove();
+		}
+	}
+
+	/** Return the name of the file for key (seed, rows, cols, phase). */
+	private static String name(long seed, int rows, int cols, GameState.Phase phase) {
+		return seed + "_" + rows + "x" + cols + "_" + phase + SUFFIX;
+	}
+}
@@ -0,0 +1,112 @@
+package graph;
+
+import static graph.SewerBinaryTest.assertSameSewers;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import graph.GameState.Phase;
+
+/** JUnit tests for class SewerCache. */
+public class SewerCacheTest {
+
+	/** The directory of the disk tier of each test */
+	@Rule
+	public TemporaryFolder folder= new TemporaryFolder();
+
+	/** Test that a get after a put is answered from memory with a new Sewers equal to <br>
+	 * the one put, and that a get of another key is a miss. */
+	@Test
+	public void testMemoryHit() throws IOException {
+		SewerCache cache= new SewerCache(folder.getRoot().toPath(), 4, 1L << 20);
+		Sewers s= SewerPool.generate(1).find;
+		cache.put(1, s.rowCount(), s.columnCount(), Phase.FIND, s);
+		Sewers t= cache.get(1, s.rowCount(), s.columnCount(), Phase.FIND);
+		assertSameSewers(s, t);
+		assertNotSame(t, cache.get(1, s.rowCount(), s.columnCount(), Phase.FIND));
+		assertArrayEquals(new long[] { 2, 0, 0 }, cache.stats());
+
+		assertNull(cache.get(1, s.rowCount(), s.columnCount(), Phase.FLEE));
+		assertNull(cache.get(2, s.rowCount(), s.columnCount(), Phase.FIND));
+		assertNull(cache.get(1, s.rowCount() + 1, s.columnCount(), Phase.FIND));
+		assertArrayEquals(new long[] { 2, 0, 3 }, cache.stats());
+	}
+
+	/** Test that a new cache on the same directory answers from disk what an earlier one <br>
+	 * stored, and then from memory; and that entry(seed) gives the sewers of <br>
+	 * SewerPool.generate(seed), generated only the first time. */
+	@Test
+	public void testDiskHit() throws IOException {
+		Path dir= folder.getRoot().toPath();
+		SewerPool.Entry e= new SewerCache(dir, 4, 1L << 20).entry(3);
+		SewerPool.Entry expected= SewerPool.generate(3);
+		assertSameSewers(expected.find, e.find);
+		assertSameSewers(expected.flee, e.flee);
+
+		SewerCache cache= new SewerCache(dir, 4, 1L << 20);
+		assertEquals(SewerBinary.encodedSize(e.find) + SewerBinary.encodedSize(e.flee),
+			cache.diskSize());
+		SewerPool.Entry f= cache.entry(3);
+		assertSameSewers(expected.find, f.find);
+		assertSameSewers(expected.flee, f.flee);
+		assertArrayEquals(new long[] { 0, 2, 0 }, cache.stats());
+		cache.entry(3);
+		assertArrayEquals(new long[] { 2, 2, 0 }, cache.stats());
+	}
+
+	/** Test that the disk tier stays within its bound by deleting the least recently <br>
+	 * used files, where a get is a use. The memory tier holds nothing, so that every <br>
+	 * get goes to disk. */
+	@Test
+	public void testLruEviction() throws IOException {
+		Path dir= folder.getRoot().toPath();
+		Sewers s= SewerPool.generate(4).flee;
+		int r= s.rowCount();
+		int c= s.columnCount();
+		long size= SewerBinary.encodedSize(s);
+		SewerCache cache= new SewerCache(dir, 0, 3 * size);
+		for (long seed= 0; seed < 3; seed++ ) {
+			cache.put(seed, r, c, Phase.FLEE, s);
+		}
+		assertEquals(3 * size, cache.diskSize());
+		assertSameSewers(s, cache.get(0, r, c, Phase.FLEE)); // 1 is now the least recent
+
+		cache.put(3, r, c, Phase.FLEE, s);
+		assertEquals(3 * size, cache.diskSize());
+		assertNull(cache.get(1, r, c, Phase.FLEE));
+		for (long seed : new long[] { 0, 2, 3 }) {
+			assertSameSewers(s, cache.get(seed, r, c, Phase.FLEE));
+		}
+		assertArrayEquals(new long[] { 0, 4, 1 }, cache.stats());
+		try (Stream<Path> files= Files.list(dir)) {
+			assertEquals(3, files.count());
+		}
+
+		// a bound smaller than one record keeps nothing on disk
+		SewerCache tiny= new SewerCache(dir, 0, size - 1);
+		assertEquals(0, tiny.diskSize());
+		assertNull(tiny.get(0, r, c, Phase.FLEE));
+		try (Stream<Path> files= Files.list(dir)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	/** Test the exceptions of the constructor. */
+	@Test
+	public void testExceptions() {
+		Path dir= folder.getRoot().toPath();
+		assertThrows(IllegalArgumentException.class, () -> new SewerCache(dir, -1, 0));
+		assertThrows(IllegalArgumentException.class, () -> new SewerCache(dir, 0, -1));
+	}
+}
@@ -0,0 +1,178 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a compact, compressed-sparse-row (CSR) view of the graph of a Sewers.
+ *
+ * Each tile (r, c) of the grid has the dense index r*cols + c, which is also the id<br>
+ * that Node(Tile, int) gives it. The exits of the tile with index k are<br>
+ * targets[offsets[k]..offsets[k+1]-1], and the length of the edge to targets[e] is<br>
+ * weights[e]. Walls have no exits.
+ *
+ * The shortest-path methods reuse scratch arrays allocated once, when the instance<br>
+ * is created, so a search allocates no objects. They are synchronized because of this.<br>
+ * If no edge is longer than BucketQueue.MAX_SMALL_WEIGHT, as in every generated sewer<br>
+ * system, they use Dial's algorithm, with a BucketQueue; otherwise, they use Dijkstra's<br>
+ * algorithm with a heap. */
+public final class SewerCsr {
+
+	/** Value in a distance array for a tile that cannot be reached */
+	public static final int UNREACHABLE= Integer.MAX_VALUE;
+
+	/** Number of rows and columns of the grid */
+	private final int rows, cols;
+
+	/** offsets[k]..offsets[k+1]-1 are the indexes in targets and weights of the exits of k. */
+	private final int[] offsets;
+
+	/** The dense indexes of the destinations of the edges */
+	private final int[] targets;
+
+	/** The lengths of the edges */
+	private final int[] weights;
+
+	/** The length of the longest edge (0 if there are no edges) */
+	private final int maxWeight;
+
+	/** Scratch space for Dijkstra's algorithm: the distances computed by distance(...), <br>
+	 * and the frontier set, with the shortest known distance of each element as priority: <br>
+	 * a BucketQueue if no edge is longer than BucketQueue.MAX_SMALL_WEIGHT, and <br>
+	 * otherwise an IndexedIntHeap. */
+	private final int[] dist;
+	private final IndexedIntQueue frontier;
+
+	/** Constructor: the CSR view of the grid of nodes tiles. <br>
+	 * Precondition: tiles is rectangular, all its elements are non-null, and <br>
+	 * every edge goes between two tiles of the grid. */
+	/* package */ SewerCsr(Node[][] tiles) {
+		rows= tiles.length;
+		cols= tiles[0].length;
+		int n= rows * cols;
+
+		offsets= new int[n + 1];
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				offsets[i * cols + j + 1]= tiles[i][j].getExits().size();
+			}
+		}
+		for (int k= 0; k < n; k++ ) {
+			offsets[k + 1]+= offsets[k];
+		}
+
+		targets= new int[offsets[n]];
+		weights= new int[offsets[n]];
+		int max= 0;
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				int e= offsets[i * cols + j];
+				for (Edge edge : tiles[i][j].getExits()) {
+					targets[e]= index(edge.getOther(tiles[i][j]));
+					weights[e]= edge.length;
+					max= Math.max(max, edge.length);
+					e++ ;
+				}
+			}
+		}
+		maxWeight= max;
+
+		dist= new int[n];
+		frontier= maxWeight <= BucketQueue.MAX_SMALL_WEIGHT ? new BucketQueue(n, maxWeight) :
+			new IndexedIntHeap(n, true);
+	}
+
+	/** Return the number of tiles (including walls) in the grid. */
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/** Return the number of columns of the grid. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the dense index of tile (r, c). */
+	public int index(int r, int c) {
+		return r * cols + c;
+	}
+
+	/** Return the dense index of node n's tile. */
+	public int index(Node n) {
+		return index(n.getTile().row(), n.getTile().column());
+	}
+
+	/** Return the index in targets() and weights() of the first exit of k. */
+	public int firstExit(int k) {
+		return offsets[k];
+	}
+
+	/** Return 1 + the index in targets() and weights() of the last exit of k. */
+	public int endExit(int k) {
+		return offsets[k + 1];
+	}
+
+	/** Return the dense index of the destination of edge e. */
+	public int target(int e) {
+		return targets[e];
+	}
+
+	/** Return the length of edge e. */
+	public int weight(int e) {
+		return weights[e];
+	}
+
+	/** Return the length of the longest edge (0 if there are no edges). */
+	public int maxWeight() {
+		return maxWeight;
+	}
+
+	/** Return the length of a shortest path from src to dst, <br>
+	 * or UNREACHABLE if there is no such path. */
+	public synchronized int distance(int src, int dst) {
+		run(src, dst, dist);
+		return dist[dst];
+	}
+
+	/** Return an array d with d[k] the length of a shortest path from src to k, <br>
+	 * or UNREACHABLE if there is no such path. */
+	public int[] distancesFrom(int src) {
+		int[] d= new int[size()];
+		distancesFrom(src, d);
+		return d;
+	}
+
+	/** Store in d[k] the length of a shortest path from src to k, <br>
+	 * or UNREACHABLE if there is no such path. <br>
+	 * Precondition: d.length = size(). */
+	public synchronized void distancesFrom(int src, int[] d) {
+		if (d.length != size()) throw new IllegalArgumentException("d has the wrong length");
+		run(src, -1, d);
+	}
+
+	/** Run Dijkstra's algorithm from src, storing distances in d, and stop as soon as <br>
+	 * dst is settled (dst = -1 means never stop early). With a BucketQueue as the <br>
+	 * frontier, this is Dial's algorithm. <br>
+	 * When this returns early, d[k] is correct only for settled nodes. */
+	private void run(int src, int dst, int[] d) {
+		Arrays.fill(d, UNREACHABLE);
+		frontier.clear();
+
+		d[src]= 0;
+		frontier.insert(src, 0);
+		while (frontier.size() > 0) {
+			int f= frontier.poll();
+			if (f == dst) return;
+			int fDist= d[f];
+			for (int e= offsets[f]; e < offsets[f + 1]; e++ ) {
+				int w= targets[e];
+				int wDistNew= fDist + weights[e];
+				if (d[w] == UNREACHABLE) {
+					d[w]= wDistNew;
+					frontier.insert(w, wDistNew);
+				} else if (wDistNew < d[w]) {
+					d[w]= wDistNew;
+					frontier.changePriority(w, wDistNew);
+				}
+			}
+		}
+	}
+}
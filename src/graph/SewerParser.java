@@ -0,0 +1,216 @@
+package graph;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** An instance reads a sewer system in the text format of Sewers.serialize() from a Reader,<br>
+ * in a single pass and without splitting lines into Strings.
+ *
+ * The format is a header line "rows:cols,trgt:id" followed by one line per open tile: <br>
+ * "id,row,col,coins,TYPE=id-weight,id-weight,...", where each id-weight pair is an exit.<br>
+ * An exit may refer to a node whose line comes later, so exits are recorded as they are <br>
+ * read and are resolved to Nodes, in order, once the input is exhausted. */
+/* package */ final class SewerParser {
+
+	/** The tile types, tried in this order when reading a type name */
+	private static final Tile.TileType[] TYPES= Tile.TileType.values();
+
+	/** The input */
+	private final Reader in;
+
+	/** buf[pos..limit-1] contains the input characters read from in but not yet consumed */
+	private final char[] buf= new char[8192];
+	private int pos, limit;
+
+	/** Number of the input line being read (for error messages) */
+	private int line= 1;
+
+	/** Number of columns of the grid and the grid of tiles read so far */
+	private int cols;
+	private Node[][] tiles;
+
+	/** Nodes whose id is not row*cols + col (there are none in generated sewers) */
+	private final Map<Long, Node> otherIds= new HashMap<>();
+
+	/** The exits read so far: exit k goes from exitSrc[k] to the node with id exitDst[k] <br>
+	 * and has length exitLen[k], for k in 0..exits-1. */
+	private Node[] exitSrc= new Node[64];
+	private long[] exitDst= new long[64];
+	private int[] exitLen= new int[64];
+	private int exits;
+
+	/** Constructor: a parser that reads from r. */
+	SewerParser(Reader r) {
+		in= r;
+	}
+
+	/** Read the whole input and return the sewer system it describes. <br>
+	 * Throw an IllegalArgumentException if the input is not in the right format. */
+	Sewers parse() throws IOException {
+		int rows= readInt();
+		expect(':');
+		cols= readInt();
+		expect(',');
+		for (char c : "trgt:".toCharArray()) {
+			expect(c);
+		}
+		long targetId= readLong();
+		endLine();
+		if (rows < 1 || cols < 1) throw error("bad dimensions");
+
+		tiles= new Node[rows][cols];
+		Set<Node> graph= new HashSet<>();
+		while (peek() != -1) {
+			if (atEndOfLine()) { // skip blank lines
+				endLine();
+				continue;
+			}
+			long id= readLong();
+			expect(',');
+			int r= readInt();
+			expect(',');
+			int c= readInt();
+			expect(',');
+			int coins= readInt();
+			expect(',');
+			Tile.TileType type= readType();
+			expect('=');
+			if (r >= rows || c >= cols) throw error("tile is not in the grid");
+
+			Node n= new Node(id, new Tile(r, c, coins, type));
+			tiles[r][c]= n;
+			graph.add(n);
+			if (id != (long) r * cols + c) otherIds.put(id, n);
+
+			if (!atEndOfLine()) {
+				do {
+					long other= readLong();
+					expect('-');
+					addExit(n, other, readInt());
+				} while (accept(','));
+			}
+			endLine();
+		}
+
+		for (int k= 0; k < exits; k++ ) {
+			exitSrc[k].addEdge(new Edge(exitSrc[k], lookup(exitDst[k]), exitLen[k]));
+		}
+		Node target= lookup(targetId);
+
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				if (tiles[i][j] == null) {
+					tiles[i][j]= new Node(new Tile(i, j, 0, Tile.TileType.WALL), cols);
+				}
+			}
+		}
+		return new Sewers(graph, tiles, target);
+	}
+
+	/** Record an exit of length len from node src to the node with id dst. */
+	private void addExit(Node src, long dst, int len) {
+		if (exits == exitSrc.length) {
+			exitSrc= Arrays.copyOf(exitSrc, 2 * exits);
+			exitDst= Arrays.copyOf(exitDst, 2 * exits);
+			exitLen= Arrays.copyOf(exitLen, 2 * exits);
+		}
+		exitSrc[exits]= src;
+		exitDst[exits]= dst;
+		exitLen[exits]= len;
+		exits++ ;
+	}
+
+	/** Return the node with id id. Throw an IllegalArgumentException if there is none. */
+	private Node lookup(long id) {
+		if (0 <= id && id < (long) tiles.length * cols) {
+			Node n= tiles[(int) (id / cols)][(int) (id % cols)];
+			if (n != null && n.getId() == id) return n;
+		}
+		Node n= otherIds.get(id);
+		if (n == null) throw new IllegalArgumentException("No node with id " + id);
+		return n;
+	}
+
+	/** Return the next input character without consuming it (-1 at the end of input). */
+	private int peek() throws IOException {
+		if (pos == limit) {
+			limit= in.read(buf, 0, buf.length);
+			pos= 0;
+			if (limit <= 0) {
+				limit= 0;
+				return -1;
+			}
+		}
+		return buf[pos];
+	}
+
+	/** If the next input character is c, consume it and return true; <br>
+	 * otherwise, return false. */
+	private boolean accept(char c) throws IOException {
+		if (peek() != c) return false;
+		pos++ ;
+		return true;
+	}
+
+	/** Consume the next input character, which must be c. */
+	private void expect(char c) throws IOException {
+		if (!accept(c)) throw error("expected '" + c + "'");
+	}
+
+	/** Return true iff the input is at the end of a line (or of the input). */
+	private boolean atEndOfLine() throws IOException {
+		int c= peek();
+		return c == -1 || c == '\r' || c == '\n';
+	}
+
+	/** Consume the end of the current line: "\n", "\r\n", or the end of the input. */
+	private void endLine() throws IOException {
+		accept('\r');
+		if (peek() != -1) expect('\n');
+		line++ ;
+	}
+
+	/** Read and return a nonnegative decimal number. */
+	private long readLong() throws IOException {
+		int c= peek();
+		if (c < '0' || c > '9') throw error("expected a number");
+		long v= 0;
+		while (c >= '0' && c <= '9') {
+			v= v * 10 + (c - '0');
+			pos++ ;
+			c= peek();
+		}
+		return v;
+	}
+
+	/** Read and return a nonnegative decimal number that fits in an int. */
+	private int readInt() throws IOException {
+		long v= readLong();
+		if (v > Integer.MAX_VALUE) throw error("number too large");
+		return (int) v;
+	}
+
+	/** Read the name of a TileType and return the TileType. */
+	private Tile.TileType readType() throws IOException {
+		int c= peek();
+		for (Tile.TileType t : TYPES) {
+			String name= t.name();
+			if (c != name.charAt(0)) continue;
+			for (int k= 0; k < name.length(); k++ ) {
+				expect(name.charAt(k));
+			}
+			return t;
+		}
+		throw error("expected a tile type");
+	}
+
+	/** Return an exception that reports msg at the current line. */
+	private IllegalArgumentException error(String msg) {
+		return new IllegalArgumentException("Line " + line + ": " + msg);
+	}
+}
@@ -0,0 +1,52 @@
+package graph;
+
+import static graph.SewerBinaryTest.assertSameSewers;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+/** JUnit tests for class SewerParser, through Sewers.deserialize(Reader). */
+public class SewerParserTest {
+
+	/** Return the sewers read by a SewerParser from text. */
+	private static Sewers parse(String text) throws IOException {
+		return Sewers.deserialize(new StringReader(text));
+	}
+
+	/** Test that serialize and then deserialize(Reader) gives back the same sewers, <br>
+	 * with "\n" and with "\r\n" line ends, and the same as deserialize(List). */
+	@Test
+	public void testRoundTrip() throws IOException {
+		for (Sewers s : SewerBinaryTest.sewers(10)) {
+			assertSameSewers(s, parse(String.join("\n", s.serialize())));
+			assertSameSewers(s, parse(String.join("\r\n", s.serialize()) + "\r\n"));
+			assertSameSewers(Sewers.deserialize(s.serialize()),
+				parse(String.join("\n", s.serialize())));
+		}
+	}
+
+	/** Test that malformed text throws an IllegalArgumentException. */
+	@Test
+	public void testMalformed() {
+		String header= "2:2,trgt:0\n";
+		String[] bad= {
+			"", // no header
+			"2;2,trgt:0\n0,0,0,0,ENTRANCE=", // bad header
+			"0:2,trgt:0\n", // no rows
+			header + "0,0,0,x,ENTRANCE=", // coins not a number
+			header + "0,0,0,0,DOOR=", // unknown tile type
+			header + "0,0,0,0,ENTRANCE", // no '='
+			header + "0,2,0,0,ENTRANCE=", // tile not in the grid
+			header + "0,0,0,0,ENTRANCE=7-1", // exit to a missing node
+			header + "0,0,0,0,ENTRANCE=1-", // exit without a length
+			"2:2,trgt:3\n0,0,0,0,ENTRANCE=", // ring not a node
+			header + "0,0,0,99999999999,ENTRANCE=", // number too large
+		};
+		for (String text : bad) {
+			assertThrows(text, IllegalArgumentException.class, () -> parse(text));
+		}
+	}
+}
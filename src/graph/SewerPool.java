@@ -0,0 +1,165 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** An instance generates the sewers of the games for a list of seeds on background <br>
+ * threads, ahead of the games that use them, and hands them out in the order of the seeds.
+ *
+ * The pool is bounded: at most capacity entries are generated and not yet taken (or <br>
+ * being generated) at any time; a worker waits for take() to make room before it <br>
+ * starts another seed. Workers claim seeds in order and take() waits for the next one, <br>
+ * so the entry take() waits for is always being generated, or done, and the pool <br>
+ * cannot deadlock.
+ *
+ * If a SewerCache is given, entries are taken from it when it has them, and the ones <br>
+ * generated are stored in it, so the sewers for a seed are generated once across all <br>
+ * the runs that use the cache's directory. */
+public final class SewerPool implements AutoCloseable {
+
+	/** An instance holds the sewers of the game for a seed. Its sewers are changed by <br>
+	 * the game (McDiver picks up coins), so it must be used for only one game. */
+	public static final class Entry {
+		/** The seed of the game */
+		public final long seed;
+
+		/** The find-phase and flee-phase sewers */
+		public final Sewers find, flee;
+
+		/** Constructor: an entry for seed with sewers find and flee. */
+		public Entry(long seed, Sewers find, Sewers flee) {
+			this.seed= seed;
+			this.find= find;
+			this.flee= flee;
+		}
+	}
+
+	/** The seeds, the cache of sewers (null if none), and the entry for each seed <br>
+	 * (null once it has been taken) */
+	private final long[] seeds;
+	private final SewerCache cache;
+	private final List<CompletableFuture<Entry>> entries;
+
+	/** The index of the next seed to claim for generation, and of the next to take */
+	private final AtomicInteger next= new AtomicInteger();
+	private int taken;
+
+	/** Permits for entries that may be generated and not yet taken */
+	private final Semaphore room;
+
+	/** The worker threads */
+	private final ExecutorService workers;
+
+	/** Constructor: a pool that generates the entries for seeds, in order, on workers <br>
+	 * threads, with at most capacity entries generated ahead of take(). If cache is not <br>
+	 * null, entries are taken from and stored in it. <br>
+	 * Throw an IllegalArgumentException if workers or capacity is less than 1. */
+	public SewerPool(List<Long> seeds, int workers, int capacity, SewerCache cache) {
+		if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+		this.seeds= seeds.stream().mapToLong(Long::longValue).toArray();
+		this.cache= cache;
+		entries= new ArrayList<>(this.seeds.length);
+		for (int i= 0; i < this.seeds.length; i++ ) {
+			entries.add(new CompletableFuture<>());
+		}
+		room= new Semaphore(capacity);
+		this.workers= Executors.newFixedThreadPool(workers, (r) -> {
+			Thread t= new Thread(r, "SewerPool worker");
+			t.setDaemon(true);
+			return t;
+		});
+		for (int w= 0; w < workers; w++ ) {
+			this.workers.execute(this::work);
+		}
+	}
+
+	/** Return the number of entries that have not been taken yet. */
+	public synchronized int remaining() {
+		return seeds.length - taken;
+	}
+
+	/** Return the entry for the next seed, waiting until it has been generated. <br>
+	 * Throw a NoSuchElementException if all entries have been taken, and an <br>
+	 * IllegalStateException if the entry could not be generated or stored. */
+	public synchronized Entry take() throws InterruptedException {
+		if (taken == seeds.length) throw new NoSuchElementException();
+		try {
+			Entry e= entries.get(taken).get();
+			entries.set(taken, null);
+			taken++ ;
+			room.release();
+			return e;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Sewers for seed " + seeds[taken] +
+				" could not be generated", e.getCause());
+		}
+	}
+
+	/** Return the number of seeds that workers have claimed so far: the entries taken, <br>
+	 * plus those generated or being generated and not taken yet. */
+	/* package */ int claimed() {
+		return Math.min(next.get(), seeds.length);
+	}
+
+	/** Stop the workers. Entries not taken yet are abandoned. */
+	@Override
+	public void close() {
+		workers.shutdownNow();
+	}
+
+	/** Generate entries for seeds, claiming them in order, until there are none left <br>
+	 * or the pool is closed. */
+	private void work() {
+		try {
+			while (true) {
+				room.acquire();
+				int i= next.getAndIncrement();
+				if (i >= seeds.length) return;
+				try {
+					long seed= seeds[i];
+					entries.get(i).complete(cache == null ? generate(seed) : cache.entry(seed));
+				} catch (RuntimeException e) {
+					entries.get(i).completeExceptionally(e);
+				}
+			}
+		} catch (InterruptedException e) {
+			// The pool was closed.
+		}
+	}
+
+	/** Return the entry for seed, generated exactly as a GameState for seed generates <br>
+	 * its sewers: the size of the sewers, then the find sewer, then the flee sewer, with <br>
+	 * its entrance at the ring of the find sewer, all from one Random(seed). */
+	public static Entry generate(long seed) {
+		Random rand= new Random(seed);
+		int[] size= size(rand);
+		int rows= size[0];
+		int cols= size[1];
+		Sewers find= Sewers.digExploreSewer(rows, cols, rand);
+		Tile ringTile= find.ring().getTile();
+		Sewers flee= Sewers.digGetOutSewer(rows, cols, ringTile.row(), ringTile.column(), rand);
+		return new Entry(seed, find, flee);
+	}
+
+	/** Return the number of rows and the number of columns, in that order, of the <br>
+	 * sewers of a game, drawn from rand as a game draws them from its Random(seed) <br>
+	 * before digging: rows in GameState.MIN_ROWS..MAX_ROWS, then columns in <br>
+	 * GameState.MIN_COLS..MAX_COLS. Whatever computes a game's size from its seed <br>
+	 * (generate, SewerCache.entry) uses this, so that they all agree. */
+	/* package */ static int[] size(Random rand) {
+		int rows= rand.nextInt(GameState.MAX_ROWS - GameState.MIN_ROWS + 1) +
+			GameState.MIN_ROWS;
+		int cols= rand.nextInt(GameState.MAX_COLS - GameState.MIN_COLS + 1) +
+			GameState.MIN_COLS;
+		return new int[] { rows, cols };
+	}
+}
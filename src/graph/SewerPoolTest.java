@@ -0,0 +1,73 @@
+package graph;
+
+import static graph.SewerBinaryTest.assertSameSewers;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/** JUnit tests for class SewerPool. */
+public class SewerPoolTest {
+
+	/** Seeds in no particular order, with a repeat */
+	private static final List<Long> SEEDS= List.of(5L, 3L, 9L, 0L, 7L, 3L, -2L, 11L);
+
+	/** Test that the entries come out in the order of the seeds, each with the sewers <br>
+	 * generate(seed) gives, whatever the number of workers and the capacity. */
+	@Test
+	public void testSeedOrder() throws InterruptedException {
+		for (int workers= 1; workers <= 3; workers++ ) {
+			for (int capacity : new int[] { 1, 2, 5 }) {
+				try (SewerPool pool= new SewerPool(SEEDS, workers, capacity, null)) {
+					for (int i= 0; i < SEEDS.size(); i++ ) {
+						assertEquals(SEEDS.size() - i, pool.remaining());
+						SewerPool.Entry e= pool.take();
+						long seed= SEEDS.get(i);
+						assertEquals(seed, e.seed);
+						SewerPool.Entry expected= SewerPool.generate(seed);
+						assertSameSewers(expected.find, e.find);
+						assertSameSewers(expected.flee, e.flee);
+					}
+					assertEquals(0, pool.remaining());
+					assertThrows(NoSuchElementException.class, () -> pool.take());
+				}
+			}
+		}
+	}
+
+	/** Wait until pool has claimed n seeds, failing after 10 seconds. */
+	private static void awaitClaimed(SewerPool pool, int n) throws InterruptedException {
+		for (int ms= 0; pool.claimed() < n; ms+= 10) {
+			assertTrue("claimed " + pool.claimed() + " of " + n, ms < 10000);
+			Thread.sleep(10);
+		}
+	}
+
+	/** Test that the workers never claim more than capacity seeds ahead of take(), <br>
+	 * however many workers there are. */
+	@Test
+	public void testCapacity() throws InterruptedException {
+		int capacity= 2;
+		try (SewerPool pool= new SewerPool(SEEDS, 4, capacity, null)) {
+			for (int taken= 0; taken < SEEDS.size(); taken++ ) {
+				int ahead= Math.min(taken + capacity, SEEDS.size());
+				awaitClaimed(pool, ahead);
+				// give the other workers time to claim more seeds if they could
+				Thread.sleep(50);
+				assertEquals(ahead, pool.claimed());
+				pool.take();
+			}
+		}
+	}
+
+	/** Test the exceptions of the constructor. */
+	@Test
+	public void testExceptions() {
+		assertThrows(IllegalArgumentException.class, () -> new SewerPool(SEEDS, 0, 1, null));
+		assertThrows(IllegalArgumentException.class, () -> new SewerPool(SEEDS, 1, 0, null));
+	}
+}
@@ -1,19 +1,19 @@
 package graph;
 
-import java.util.ArrayDeque;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /** An instance is a Sewers through which a sewer diver can move.<br>
  * It's a grid of Tile objects with a weighted graph of all non-floor tiles.
@@ -22,7 +22,8 @@ import java.util.stream.Stream;
  * (which may also be the entrance). */
 public class Sewers {
 	public static final int MAX_EDGE_WEIGHT= 15;
-	private static final double DENSITY= 0.6;
+	/** Package-private, not private, so that CompactSewers digs with the same density. */
+	/* package */ static final double DENSITY= 0.6;
 	private static final double COIN_PROBABILITY= 0.33;
 	public static final int MAX_COIN_VALUE= 1000;
 	public static final int TASTY_VALUE= 5000;
@@ -44,6 +45,9 @@ public class Sewers {
 		}
 	}
 
+	/** The directions, in the order in which generateGraph probes them */
+	private static final Direction[] DIRECTIONS= Direction.values();
+
 	/** An instance represents a point on the grid. */
 	private static final class Point {
 		/** The row and column of the point */
@@ -55,11 +59,6 @@ public class Sewers {
 			col= c;
 		}
 
-		/** Return a new point that is this point with p added to it. */
-		public Point add(Point p) {
-			return new Point(row + p.row, col + p.col);
-		}
-
 		/** Return true iff ob is a Point and with same row and col of this one. */
 		@Override
 		public boolean equals(Object ob) {
@@ -86,6 +85,13 @@ public class Sewers {
 	/** Grid of tiles */
 	private final Node[][] tiles;
 
+	/** Compact view of the graph, used for shortest-path computations */
+	private final SewerCsr csr;
+
+	/** ringDist[csr.index(n)] is the shortest distance from n to the ring. <br>
+	 * Since the graph is undirected, one run of Dijkstra's algorithm from the ring computes it. */
+	private final int[] ringDist;
+
 	/** Return a new random sewer system with r rows, c columns, and no coins,<br>
 	 * all edges have weight 1, and there is a ring a reasonable distance from the exit.<br>
 	 * rand is the source of randomness for the sewer-system generation. */
@@ -100,8 +106,9 @@ public class Sewers {
 	}
 
 	/** Return the minimum allowable path distance from the entrance to the ring.<br>
-	 * The graph has r rows and c columns */
-	private static int minRingDistance(int r, int c) {
+	 * The graph has r rows and c columns <br>
+	 * Package-private so that CompactSewers places its ring by the same rule. */
+	/* package */ static int minRingDistance(int r, int c) {
 		return (r + c) / 2;
 	}
 
@@ -123,8 +130,9 @@ public class Sewers {
 	}
 
 	/** Return a randomly determined gold value (to place on a tile).<br>
-	 * Use rand as the source of randomness. */
-	private static int randomCoinValue(Random rand) {
+	 * Use rand as the source of randomness. <br>
+	 * Package-private so that CompactSewers draws the same coins from the same Random. */
+	/* package */ static int randomCoinValue(Random rand) {
 		if (rand.nextDouble() > COIN_PROBABILITY) { return 0; }
 
 		int val= rand.nextInt(MAX_COIN_VALUE) + 1;
@@ -165,6 +173,8 @@ public class Sewers {
 			}
 		}
 		createEdges(tiles, edgeWeightGenerator);
+		csr= new SewerCsr(tiles);
+		ringDist= csr.distancesFrom(csr.index(ring));
 	}
 
 	/** Constructor; a graph constructed from givenGraph and tiles givenTiles, <br>
@@ -173,8 +183,10 @@ public class Sewers {
 	 * 1. givenGraph and givenTiles represent the same graph <br>
 	 * .. (i.e. givenGraph contains all non-floor nodes in givenTiles<br>
 	 * .. and edges are along the grid). <br>
-	 * 2. trgt is a node in givenGraph. */
-	private Sewers(Set<Node> givenGraph, Node[][] givenTiles, Node trgt) {
+	 * 2. trgt is a node in givenGraph. <br>
+	 * Package-private, not private, because the readers of the other formats <br>
+	 * (SewerBinary, SewerParser) and CompactSewers.toSewers() build a Sewers with it. */
+	/* package */ Sewers(Set<Node> givenGraph, Node[][] givenTiles, Node trgt) {
 		tiles= givenTiles;
 		rows= tiles.length;
 		cols= tiles[0].length;
@@ -183,6 +195,8 @@ public class Sewers {
 		entrance= graph.stream().filter((n) -> n.getTile().type() == Tile.TileType.ENTRANCE)
 			.findAny().get();
 		ring= trgt;
+		csr= new SewerCsr(tiles);
+		ringDist= csr.distancesFrom(csr.index(ring));
 	}
 
 	/** Given tiles without edges and a supplier to return edge weights, add <br>
@@ -196,84 +210,106 @@ public class Sewers {
 					continue;
 				}
 
-				final Point p= new Point(i, j);
-				Stream.of(Direction.SOUTH, Direction.EAST)
-					.map(Direction::direction)
-					.map(p::add)
-					.map((q) -> tiles[q.row][q.col])
-					.filter((m) -> m.getTile().type() != Tile.TileType.WALL)
-					.forEach((m) -> {
-						int weight= edgeWeightGenerator.get();
-						node.addEdge(new Edge(node, m, weight));
-						m.addEdge(new Edge(m, node, weight));
-					});
+				// South, then east, as weights have always been drawn in that order.
+				addEdges(node, tiles[i + 1][j], edgeWeightGenerator);
+				addEdges(node, tiles[i][j + 1], edgeWeightGenerator);
 			}
 		}
 	}
 
-	/** Return true iff p is on the grid. */
-	private boolean isValid(Point p) {
-		return 0 < p.row && p.row < rows - 1 &&
-			0 < p.col && p.col < cols - 1;
+	/** If m is not a wall, add edges between node and m in both directions, with a <br>
+	 * length from edgeWeightGenerator. */
+	private static void addEdges(Node node, Node m, Supplier<Integer> edgeWeightGenerator) {
+		if (m.getTile().type() == Tile.TileType.WALL) return;
+		int weight= edgeWeightGenerator.get();
+		node.addEdge(new Edge(node, m, weight));
+		m.addEdge(new Edge(m, node, weight));
 	}
 
-	/** Generate a new random graph that fits within the grid and return the set of nodes. */
+	/** Return true iff (row, col) is on the grid, not on its border. */
+	private boolean isValid(int row, int col) {
+		return 0 < row && row < rows - 1 &&
+			0 < col && col < cols - 1;
+	}
+
+	/** Generate a new random graph that fits within the grid and return the set of nodes.
+	 *
+	 * This is a breadth-first walk from the entrance that opens each newly seen neighbor of <br>
+	 * a tile with some probability, forcing one open if the tile would otherwise be a dead <br>
+	 * end. Tiles are known by their dense index row*cols + col: the tiles seen and opened <br>
+	 * are bits of two BitSets, and the frontier is an int array used as a queue (each tile <br>
+	 * enters it at most once, so it never needs more than rows*cols elements). No object <br>
+	 * is created for a probe of a neighbor. Calls on rand and coinGenerator are made in the <br>
+	 * same order as always, so a seed gives the same sewer system as before. */
 	private Set<Node> generateGraph(Random rand,
 		Tile.TileType targetType,
 		Supplier<Integer> coinGenerator) {
 		List<Node> nodes= new ArrayList<>();
 
-		Set<Point> pointsSeen= new HashSet<>();
-		Set<Point> openPoints= new HashSet<>();
-		Queue<Node> frontier= new ArrayDeque<>();
+		BitSet seen= new BitSet(rows * cols);
+		BitSet open= new BitSet(rows * cols);
+		int[] frontier= new int[rows * cols];
+		int head= 0;
+		int tail= 0;
+		int[] newExits= new int[DIRECTIONS.length];
 
 		Point entrancePoint= getEntrancePoint(rand);
 		Node entrance= new Node(new Tile(entrancePoint.row,
 			entrancePoint.col, 0, Tile.TileType.ENTRANCE), cols);
 		nodes.add(entrance);
 
-		pointsSeen.add(entrancePoint);
-		openPoints.add(entrancePoint);
-		frontier.add(entrance);
-		while (!frontier.isEmpty()) {
-			Node node= frontier.remove();
-			Point p= new Point(node.getTile().row(), node.getTile().column());
+		int e= entrancePoint.row * cols + entrancePoint.col;
+		seen.set(e);
+		open.set(e);
+		frontier[tail]= e;
+		tail++ ;
+		while (head < tail) {
+			int k= frontier[head];
+			head++ ;
+			int r= k / cols;
+			int c= k % cols;
 
 			// We want to make sure there's a way out if we can get one.
 			// This will prevent stupid degenerate graphs.
 			int existingExits= 0;
-			List<Point> newExits= new ArrayList<>();
-			for (Direction dir : Direction.values()) {
-				Point newPt= dir.direction().add(p);
-				if (isValid(newPt)) {
-					if (openPoints.contains(newPt)) {
+			int nExits= 0;
+			for (Direction dir : DIRECTIONS) {
+				int nr= r + dir.direction().row;
+				int nc= c + dir.direction().col;
+				if (isValid(nr, nc)) {
+					int q= nr * cols + nc;
+					if (open.get(q)) {
 						existingExits++ ;
-					} else if (pointsSeen.add(newPt)) {
-						newExits.add(newPt);
+					} else if (!seen.get(q)) {
+						seen.set(q);
+						newExits[nExits]= q;
+						nExits++ ;
 					}
 				}
 			}
 
-			int nExits= newExits.size();
 			if (nExits > 0) {
 				double modifiedDensity;
-				Point forcedExit;
+				int forcedExit;
 				// Modify the density function so that the expected number of open exits
 				// is the same even though we're forcing something to be open.
 				if (existingExits < 2) {
 					modifiedDensity= nExits == 1 ? 0.0 : (nExits * DENSITY - 1) / (nExits - 1);
-					forcedExit= newExits.get(rand.nextInt(newExits.size()));
+					forcedExit= newExits[rand.nextInt(nExits)];
 				} else {
 					modifiedDensity= DENSITY;
-					forcedExit= null;
+					forcedExit= -1;
+				}
+				for (int x= 0; x < nExits; x++ ) {
+					int q= newExits[x];
+					if (q == forcedExit || rand.nextDouble() < modifiedDensity) {
+						open.set(q);
+						nodes.add(new Node(new Tile(q / cols, q % cols, coinGenerator.get(),
+							Tile.TileType.FLOOR), cols));
+						frontier[tail]= q;
+						tail++ ;
+					}
 				}
-				newExits.stream()
-					.filter((q) -> q.equals(forcedExit) || rand.nextDouble() < modifiedDensity)
-					.peek(openPoints::add)
-					.map((q) -> new Node(
-						new Tile(q.row, q.col, coinGenerator.get(), Tile.TileType.FLOOR), cols))
-					.peek(frontier::add)
-					.forEach(nodes::add);
 			}
 		}
 
@@ -346,42 +382,27 @@ public class Sewers {
 		return tiles[r][c];
 	}
 
-	/** Package-private implementation of Dijkstra's algorithm<br>
-	 * It returns the shortest distance from node start to ring node. <br>
+	/** Return the compact (CSR) view of the graph of this sewer system. */
+	public SewerCsr csr() {
+		return csr;
+	}
+
+	/** Return the shortest distance from node start to ring node. <br>
+	 * This is a lookup in the distances computed once, when this sewer system was created. <br>
 	 * Precondition: start must be a node of the graph. */
 	int minPathLengthToRing(Node start) {
-
-		/** The frontier set, as a min-heap. */
-		InternalMinHeap<Node> F= new InternalMinHeap<>();
-		F.add(start, 0);
-
-		/** Contains an entry for each element of the settled and frontier sets.<br>
-		 * The keys are the Ids of nodes, the values are the corresponding <br>
-		 * distances from node start to this node, using only settled nodes except for the last,
-		 * which is in the frontier set. */
-		Map<Long, Integer> SFmap= new HashMap<>();
-		SFmap.put(start.getId(), 0);
-
-		while (F.size() > 0) {
-			Node f= F.poll();
-			if (f.equals(ring)) { return SFmap.get(f.getId()); }
-
-			int fDist= SFmap.get(f.getId());
-			for (Edge e : f.getExits()) {
-				Node w= e.getOther(f);
-				Long wId= w.getId();
-				Integer wDist= SFmap.get(wId);
-				int wDistNew= fDist + e.length();
-				if (wDist == null) {
-					SFmap.put(wId, wDistNew);
-					F.add(w, wDistNew);
-				} else if (wDistNew < wDist) {
-					SFmap.put(wId, wDistNew);
-					F.changePriority(w, wDistNew);
-				}
-			}
+		int d= ringDist[csr.index(start)];
+		if (d == SewerCsr.UNREACHABLE) {
+			throw new IllegalStateException("The ring should always be reachable.");
 		}
-		throw new IllegalStateException("The above loop should always reach the desired location.");
+		return d;
+	}
+
+	/** Return an array d indexed like csr(): d[csr().index(n)] is the shortest distance<br>
+	 * from start to n, or SewerCsr.UNREACHABLE if there is no path. <br>
+	 * Precondition: start must be a node of the graph. */
+	public int[] distancesFrom(Node start) {
+		return csr.distancesFrom(csr.index(start));
 	}
 
 	/** Serialize this sewer system to a list of strings that can be written out to a file. <br>
@@ -402,6 +423,13 @@ public class Sewers {
 		return nodes;
 	}
 
+	/** Read a Sewers, in the format output by serialize() with one string per line, <br>
+	 * from r. This reads r in a single pass and is faster than deserialize(List). <br>
+	 * Throw an IllegalArgumentException if r is not in that format. */
+	public static Sewers deserialize(Reader r) throws IOException {
+		return new SewerParser(r).parse();
+	}
+
 	/** Convert nodeStrList, which was output by serialize(), back into a Sewers.<br>
 	 * Precondition: The list of strings is of the format output by serialize(). */
 	public static Sewers deserialize(List<String> nodeStrList) {
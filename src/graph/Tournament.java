@@ -0,0 +1,317 @@
+package graph;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongFunction;
+
+import diver.McDiver;
+
+/** An instance runs one game per seed on a pool of threads and collects the results.
+ *
+ * Each game has its own GameState, its own sewers, and its own SewerDiver (obtained <br>
+ * made for its seed), and it does not print. So the result of the game for a seed <br>
+ * does not depend on the other games or on the number of threads. */
+public final class Tournament {
+
+	/** An instance is the outcome of the game for one seed. */
+	public static final class Result {
+		/** The seed of the game */
+		public final long seed;
+
+		/** Score, coins collected, and steps taken in the find phase */
+		public final int score, coins, findSteps;
+
+		/** Whether each phase succeeded, timed out, or threw an exception */
+		public final boolean findSucceeded, fleeSucceeded, findTimedOut, fleeTimedOut,
+			findErred, fleeErred;
+
+		/** Constructor: the result of finished game g. */
+		private Result(GameState g) {
+			seed= g.getSeed();
+			score= g.getScore();
+			coins= g.getCoinsCollected();
+			findSteps= g.getStepsTaken();
+			findSucceeded= g.getFindSucceeded();
+			fleeSucceeded= g.getFleeSucceeded();
+			findTimedOut= g.getFindTimeout();
+			fleeTimedOut= g.getFleeTimeout();
+			findErred= g.getFindErrored();
+			fleeErred= g.getFleeErrored();
+		}
+
+		/** Return the header line of the CSV output. */
+		public static String csvHeader() {
+			return "seed,score,coins,findSteps,findSucceeded,fleeSucceeded," +
+				"findTimedOut,fleeTimedOut,findErred,fleeErred";
+		}
+
+		/** Return this result as one line of CSV output. */
+		public String toCsv() {
+			return seed + "," + score + "," + coins + "," + findSteps + "," +
+				findSucceeded + "," + fleeSucceeded + "," + findTimedOut + "," +
+				fleeTimedOut + "," + findErred + "," + fleeErred;
+		}
+	}
+
+	/** An instance contains statistics aggregated over a list of results. */
+	public static final class Summary {
+		/** Number of games */
+		public final int games;
+
+		/** Total, minimum, and maximum score */
+		public final long totalScore;
+		public final int minScore, maxScore;
+
+		/** Number of games in which each phase succeeded, timed out, or threw an exception */
+		public final int findSucceeded, fleeSucceeded, timeouts, errors;
+
+		/** Constructor: the statistics of results. */
+		public Summary(List<Result> results) {
+			games= results.size();
+			long total= 0;
+			int min= games == 0 ? 0 : Integer.MAX_VALUE;
+			int max= games == 0 ? 0 : Integer.MIN_VALUE;
+			int finds= 0, flees= 0, outs= 0, errs= 0;
+			for (Result r : results) {
+				total+= r.score;
+				min= Math.min(min, r.score);
+				max= Math.max(max, r.score);
+				if (r.findSucceeded) finds++ ;
+				if (r.fleeSucceeded) flees++ ;
+				if (r.findTimedOut || r.fleeTimedOut) outs++ ;
+				if (r.findErred || r.fleeErred) errs++ ;
+			}
+			totalScore= total;
+			minScore= min;
+			maxScore= max;
+			findSucceeded= finds;
+			fleeSucceeded= flees;
+			timeouts= outs;
+			errors= errs;
+		}
+
+		/** Return the average score (0 if there are no games). */
+		public double averageScore() {
+			return games == 0 ? 0 : (double) totalScore / games;
+		}
+
+		/** Return a representation of this summary, one statistic per line. */
+		@Override
+		public String toString() {
+			DecimalFormat df= new DecimalFormat("#.##");
+			return "Games            : " + games + "\n" +
+				"Average score    : " + df.format(averageScore()) + "\n" +
+				"Min / max score  : " + minScore + " / " + maxScore + "\n" +
+				"Find succeeded   : " + findSucceeded + "\n" +
+				"Flee succeeded   : " + fleeSucceeded + "\n" +
+				"Timeouts         : " + timeouts + "\n" +
+				"Errors           : " + errors;
+		}
+	}
+
+	/** Number of games run at the same time */
+	private final int parallelism;
+
+	/** Creates a new SewerDiver for the game of each seed */
+	private final LongFunction<? extends SewerDiver> divers;
+
+	/** Maximum number of moves the find phase of each game may make */
+	private long findStepBudget= Long.MAX_VALUE;
+
+	/** Constructor: a tournament that runs up to parallelism games at the same time, <br>
+	 * using a new SewerDiver divers.apply(seed) for the game of each seed. */
+	public Tournament(int parallelism, LongFunction<? extends SewerDiver> divers) {
+		if (parallelism < 1) throw new IllegalArgumentException("parallelism must be >= 1");
+		this.parallelism= parallelism;
+		this.divers= divers;
+	}
+
+	/** Limit the find phase of each game to budget moves: a find phase that tries to <br>
+	 * make more ends as if it had timed out. The default is no limit. <br>
+	 * Throw an IllegalArgumentException if budget < 0. */
+	public void setFindStepBudget(long budget) {
+		if (budget < 0) throw new IllegalArgumentException("budget must be >= 0");
+		findStepBudget= budget;
+	}
+
+	/** Run one game (with time limits) for each seed in seeds and return the results, <br>
+	 * in the same order as seeds. */
+	public List<Result> run(List<Long> seeds) {
+		ForkJoinPool pool= new ForkJoinPool(parallelism);
+		try {
+			List<Future<Result>> futures= new ArrayList<>(seeds.size());
+			for (long seed : seeds) {
+				futures.add(pool.submit(() -> play(seed)));
+			}
+			List<Result> results= new ArrayList<>(seeds.size());
+			for (Future<Result> f : futures) {
+				results.add(f.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Tournament interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A game could not be run", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Run one game (with time limits) for each seed in seeds, like run(seeds), but with <br>
+	 * the sewers generated ahead of the games by a SewerPool with generators threads, <br>
+	 * which takes them from and stores them in cache if cache is not null. <br>
+	 * The results are the same as those of run(seeds). <br>
+	 * At most parallelism games are waiting or running, and at most parallelism sewers <br>
+	 * are generated ahead of them, so memory stays bounded. */
+	public List<Result> run(List<Long> seeds, int generators, SewerCache cache) {
+		ForkJoinPool pool= new ForkJoinPool(parallelism);
+		Semaphore slots= new Semaphore(parallelism);
+		try (SewerPool sewers= new SewerPool(seeds, generators, parallelism, cache)) {
+			List<Future<Result>> futures= new ArrayList<>(seeds.size());
+			for (int i= 0; i < seeds.size(); i++ ) {
+				slots.acquire();
+				SewerPool.Entry e= sewers.take();
+				futures.add(pool.submit(() -> {
+					try {
+						return play(e);
+					} finally {
+						slots.release();
+					}
+				}));
+			}
+			List<Result> results= new ArrayList<>(seeds.size());
+			for (Future<Result> f : futures) {
+				results.add(f.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Tournament interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A game could not be run", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Run the game for seed, without a GUI and without printing, and return its result. */
+	private Result play(long seed) {
+		return play(SewerPool.generate(seed));
+	}
+
+	/** Run the game for the sewers of e, without a GUI and without printing, and return <br>
+	 * its result. */
+	private Result play(SewerPool.Entry e) {
+		GameState g= new GameState(e, false, divers.apply(e.seed), false);
+		g.setFindStepBudget(findStepBudget);
+		g.runWithTimeLimit();
+		return new Result(g);
+	}
+
+	/** Return a list of n seeds: seed itself followed by the seeds obtained by repeatedly <br>
+	 * applying new Random(s).nextLong(), as GameState.main does. If seed is 0, <br>
+	 * the seeds are random instead. */
+	public static List<Long> seeds(long seed, int n) {
+		List<Long> seeds= new ArrayList<>(n);
+		Random rand= new Random();
+		for (int i= 0; i < n; i++ ) {
+			if (seed == 0) {
+				seeds.add(rand.nextLong());
+			} else {
+				seeds.add(seed);
+				seed= new Random(seed).nextLong();
+			}
+		}
+		return seeds;
+	}
+
+	/** Write results to out as CSV, one line per seed, preceded by a header line. */
+	public static void writeCsv(List<Result> results, PrintWriter out) {
+		out.println(Result.csvHeader());
+		for (Result r : results) {
+			out.println(r.toCsv());
+		}
+		out.flush();
+	}
+
+	/** Run a tournament of McDivers and print its summary. Parameters: <br>
+	 * -n count: the number of games (default 1) <br>
+	 * -s seed: the first seed; the others are derived from it <br>
+	 * .. (default: random seeds) <br>
+	 * -t threads: the number of games run at the same time <br>
+	 * .. (default: the number of processors) <br>
+	 * -o file: also write the per-seed results to file as CSV <br>
+	 * -g generators: generate the sewers ahead of the games on this many threads <br>
+	 * -d dir: take the sewers from, and store them in, a SewerCache in directory dir <br>
+	 * .. (one generator thread if -g is not given) <br>
+	 * -m megabytes: the bound on the size of the cache's files (default 256) <br>
+	 * -b steps: the most moves the find phase of a game may make (default: no limit) <br>
+	 * -f flee: how McDivers flee: route, following a route planned for all the coins, <br>
+	 * .. or greedy, going for one coin at a time (default route). */
+	public static void main(String[] args) throws IOException {
+		List<String> argList= Arrays.asList(args);
+		int n;
+		long seed;
+		int threads;
+		int generators;
+		long megabytes;
+		long budget;
+		try {
+			n= Math.max(Integer.parseInt(option(argList, "-n", "1")), 1);
+			seed= Long.parseLong(option(argList, "-s", "0"));
+			threads= Math.max(Integer.parseInt(option(argList, "-t",
+				"" + Runtime.getRuntime().availableProcessors())), 1);
+			generators= Integer.parseInt(option(argList, "-g", "0"));
+			megabytes= Long.parseLong(option(argList, "-m", "256"));
+			budget= Long.parseLong(option(argList, "-b", "" + Long.MAX_VALUE));
+		} catch (NumberFormatException e) {
+			System.err.println("Error, -n, -s, -t, -g, -m and -b must be followed by a number");
+			return;
+		}
+
+		String flee= option(argList, "-f", "route");
+		if (!flee.equals("route") && !flee.equals("greedy")) {
+			System.err.println("Error, -f must be followed by route or greedy");
+			return;
+		}
+		boolean planRoute= flee.equals("route");
+
+		String dir= option(argList, "-d", null);
+		SewerCache cache= null;
+		if (dir != null) {
+			cache= new SewerCache(Paths.get(dir), SewerCache.DEFAULT_MEMORY_ENTRIES,
+				megabytes << 20);
+			generators= Math.max(generators, 1);
+		}
+		Tournament t= new Tournament(threads, (s) -> new McDiver(planRoute, s));
+		t.setFindStepBudget(Math.max(budget, 0));
+		List<Result> results= generators < 1 ? t.run(seeds(seed, n)) :
+			t.run(seeds(seed, n), generators, cache);
+		String csv= option(argList, "-o", null);
+		if (csv != null) {
+			try (PrintWriter out= new PrintWriter(Files.newBufferedWriter(Paths.get(csv)))) {
+				writeCsv(results, out);
+			}
+		}
+		System.out.println(new Summary(results));
+	}
+
+	/** Return the argument following name in args, or dflt if name is not in args <br>
+	 * or is the last argument. */
+	private static String option(List<String> args, String name, String dflt) {
+		int k= args.indexOf(name);
+		return k < 0 || k + 1 >= args.size() ? dflt : args.get(k + 1);
+	}
+}